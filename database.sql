@@ -1,3 +1,7 @@
+-- Reference copy of the current schema. The application creates and upgrades its database
+-- itself from the numbered scripts in src/main/resources/db/migration (see SchemaMigrator);
+-- change the schema by adding a script there and then updating this file to match.
+
 CREATE TABLE Students (
     student_id INTEGER PRIMARY KEY AUTOINCREMENT,
     name TEXT NOT NULL
@@ -14,8 +18,8 @@ CREATE TABLE Grades (
     subject_id INTEGER NOT NULL,
     grade_value REAL NOT NULL,
 
-    FOREIGN KEY (student_id) REFERENCES Students(student_id),
-    FOREIGN KEY (subject_id) REFERENCES Subjects(subject_id)
+    FOREIGN KEY (student_id) REFERENCES Students(student_id) ON DELETE CASCADE,
+    FOREIGN KEY (subject_id) REFERENCES Subjects(subject_id) ON DELETE CASCADE
 );
 
 CREATE TABLE Attendance (
@@ -23,22 +27,106 @@ CREATE TABLE Attendance (
     student_id INTEGER NOT NULL,
     subject_id INTEGER NOT NULL,
     date DATE NOT NULL,
-    status TEXT NOT NULL CHECK (status IN ('present', 'absent')),
-    FOREIGN KEY (student_id) REFERENCES Students(student_id),
-    FOREIGN KEY (subject_id) REFERENCES Subjects(subject_id)
+    -- stored as 0/1
+    present BOOLEAN NOT NULL,
+    FOREIGN KEY (student_id) REFERENCES Students(student_id) ON DELETE CASCADE,
+    FOREIGN KEY (subject_id) REFERENCES Subjects(subject_id) ON DELETE CASCADE
 );
 
-CREATE INDEX idx_student_id_grades
-ON Grades (student_id);
+-- One grade per student and subject, one attendance row per student, subject and day;
+-- these also serve the student_id and subject_id foreign keys
+CREATE UNIQUE INDEX ux_grades_key
+ON Grades (student_id, subject_id);
+
+CREATE UNIQUE INDEX ux_attendance_key
+ON Attendance (student_id, subject_id, date);
 
-CREATE INDEX idx_subject_id_grades
-ON Grades (subject_id);
+-- Rows that duplicated one of those keys when the keys were introduced (migration V4),
+-- kept for review; nothing reads or writes them afterwards
+CREATE TABLE Attendance_duplicates (
+    attendance_id INTEGER PRIMARY KEY,
+    student_id INTEGER NOT NULL,
+    subject_id INTEGER NOT NULL,
+    date DATE NOT NULL,
+    present BOOLEAN NOT NULL,
+    quarantined_on TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
 
-CREATE INDEX idx_student_id_attendance
-ON Attendance (student_id);
+CREATE TABLE Grades_duplicates (
+    grade_id INTEGER PRIMARY KEY,
+    student_id INTEGER NOT NULL,
+    subject_id INTEGER NOT NULL,
+    grade_value REAL NOT NULL,
+    quarantined_on TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
 
 CREATE INDEX idx_date_attendance
 ON Attendance (date);
 
-CREATE INDEX idx_subject_id_attendance
-ON Attendance (subject_id);
+CREATE INDEX idx_student_date_attendance
+ON Attendance (student_id, date);
+
+CREATE INDEX idx_subject_date_attendance
+ON Attendance (subject_id, date);
+
+CREATE INDEX idx_grade_value_grades
+ON Grades (grade_value);
+
+CREATE INDEX idx_subject_grade_grades
+ON Grades (subject_id, grade_value);
+
+CREATE INDEX idx_name_students
+ON Students (name COLLATE NOCASE);
+
+CREATE INDEX idx_name_subjects
+ON Subjects (name COLLATE NOCASE);
+
+CREATE TABLE DailyAttendanceSummary (
+    student_id INTEGER NOT NULL,
+    date DATE NOT NULL,
+    subject_id INTEGER NOT NULL,
+    present_count INTEGER NOT NULL,
+    total_count INTEGER NOT NULL,
+    PRIMARY KEY (student_id, date, subject_id)
+) WITHOUT ROWID;
+
+CREATE TRIGGER trg_attendance_summary_insert AFTER INSERT ON Attendance
+BEGIN
+    INSERT INTO DailyAttendanceSummary (student_id, date, subject_id, present_count, total_count)
+    VALUES (NEW.student_id, NEW.date, NEW.subject_id, NEW.present, 1)
+    ON CONFLICT (student_id, date, subject_id) DO UPDATE SET
+        present_count = present_count + excluded.present_count,
+        total_count = total_count + 1;
+END;
+
+CREATE TRIGGER trg_attendance_summary_delete AFTER DELETE ON Attendance
+BEGIN
+    UPDATE DailyAttendanceSummary
+    SET present_count = present_count - OLD.present, total_count = total_count - 1
+    WHERE student_id = OLD.student_id AND date = OLD.date AND subject_id = OLD.subject_id;
+    DELETE FROM DailyAttendanceSummary
+    WHERE student_id = OLD.student_id AND date = OLD.date AND subject_id = OLD.subject_id AND total_count <= 0;
+END;
+
+CREATE TRIGGER trg_attendance_summary_update AFTER UPDATE OF student_id, subject_id, date, present ON Attendance
+BEGIN
+    UPDATE DailyAttendanceSummary
+    SET present_count = present_count - OLD.present, total_count = total_count - 1
+    WHERE student_id = OLD.student_id AND date = OLD.date AND subject_id = OLD.subject_id;
+    DELETE FROM DailyAttendanceSummary
+    WHERE student_id = OLD.student_id AND date = OLD.date AND subject_id = OLD.subject_id AND total_count <= 0;
+    INSERT INTO DailyAttendanceSummary (student_id, date, subject_id, present_count, total_count)
+    VALUES (NEW.student_id, NEW.date, NEW.subject_id, NEW.present, 1)
+    ON CONFLICT (student_id, date, subject_id) DO UPDATE SET
+        present_count = present_count + excluded.present_count,
+        total_count = total_count + 1;
+END;
+
+-- Named storage options; attendance_date_encoding is 'iso_text' (YYYY-MM-DD) or
+-- 'epoch_day' (INTEGER days since 1970-01-01) for Attendance.date and DailyAttendanceSummary.date
+CREATE TABLE schema_settings (
+    name TEXT PRIMARY KEY,
+    value TEXT NOT NULL
+) WITHOUT ROWID;
+
+INSERT INTO schema_settings (name, value) VALUES ('attendance_date_encoding', 'iso_text');
@@ -0,0 +1,398 @@
+package com.example.studentperformance;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small bounded pool of JDBC connections.
+ * <p>
+ * Callers borrow a connection with {@link #borrow()} and hand it back by calling
+ * {@link Connection#close()} on it, so the usual try-with-resources blocks keep working.
+ * A borrower that cannot vouch for the connection's state, e.g. after a failed rollback,
+ * calls {@link Connection#abort} instead and the physical connection is closed rather
+ * than pooled.
+ * Idle connections are validated before they are handed out and are closed once they
+ * have been idle for longer than the configured limit.
+ * <p>
+ * Each physical connection keeps a {@link PreparedStatementCache}, so a statement closed
+ * by one borrower is reused by the next one that prepares the same SQL. Only the plain
+ * {@code prepareStatement(sql)} and {@code prepareStatement(sql, type, concurrency)} forms
+ * are cached; a cache size of 0 turns caching off.
+ */
+public class ConnectionPool {
+
+    /**
+     * Hook run once on every new physical connection (pragmas and the like).
+     */
+    public interface ConnectionInitializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Point-in-time view of the pool counters.
+     */
+    public static class Stats {
+        private final int active;
+        private final int idle;
+        private final int maxSize;
+        private final long borrowCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long statementHits;
+        private final long statementMisses;
+        private final long statementEvictions;
+
+        Stats(int active, int idle, int maxSize, long borrowCount, long totalWaitNanos, long maxWaitNanos,
+              long statementHits, long statementMisses, long statementEvictions) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+            this.statementEvictions = statementEvictions;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        // Prepares served by an already compiled statement
+        public long getStatementHits() {
+            return statementHits;
+        }
+
+        public long getStatementMisses() {
+            return statementMisses;
+        }
+
+        public long getStatementEvictions() {
+            return statementEvictions;
+        }
+
+        public double getStatementHitRate() {
+            long prepares = statementHits + statementMisses;
+            return prepares == 0 ? 0.0 : (double) statementHits / prepares;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d, idle=%d, max=%d, borrows=%d, avgWait=%.2fms, maxWait=%.2fms, " +
+                            "stmtHits=%d, stmtMisses=%d, stmtHitRate=%.1f%%, stmtEvictions=%d",
+                    active, idle, maxSize, borrowCount, getAverageWaitMillis(), getMaxWaitMillis(),
+                    statementHits, statementMisses, getStatementHitRate() * 100, statementEvictions);
+        }
+    }
+
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+
+    private final String url;
+    private final int maxSize;
+    private final long maxIdleNanos;
+    private final long borrowTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+    private final ConnectionInitializer initializer;
+
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+    private final Map<Connection, PreparedStatementCache> statementCaches = new ConcurrentHashMap<>();
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String url, int maxSize, long maxIdleMillis, long borrowTimeoutMillis,
+                          int validationTimeoutSeconds, ConnectionInitializer initializer) {
+        this(url, maxSize, maxIdleMillis, borrowTimeoutMillis, validationTimeoutSeconds, 0, initializer);
+    }
+
+    public ConnectionPool(String url, int maxSize, long maxIdleMillis, long borrowTimeoutMillis,
+                          int validationTimeoutSeconds, int statementCacheSize, ConnectionInitializer initializer) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size must not be negative");
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMillis);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.statementCacheSize = statementCacheSize;
+        this.initializer = initializer;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured timeout when the pool is exhausted.
+     * Closing the returned connection gives it back to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            Connection physical = takeIdle();
+            if (physical == null) {
+                physical = openPhysical();
+            }
+            active.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Stats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        return new Stats(active.get(), idleCount, maxSize, borrowCount.get(), totalWaitNanos.get(), maxWaitNanos.get(),
+                statementHits.get(), statementMisses.get(), statementEvictions.get());
+    }
+
+    /**
+     * Closes every idle connection and refuses further borrows. Connections that are
+     * still checked out are closed when they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        synchronized (idle) {
+            while (!idle.isEmpty()) {
+                closeQuietly(idle.pollFirst().connection);
+            }
+        }
+    }
+
+    private void recordWait(long waited) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    // Most recently returned connections are reused first so the rest can age out
+    private Connection takeIdle() {
+        while (true) {
+            IdleConnection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+            if (candidate == null) {
+                return null;
+            }
+            if (System.nanoTime() - candidate.idleSince > maxIdleNanos || !isUsable(candidate.connection)) {
+                closeQuietly(candidate.connection);
+                continue;
+            }
+            return candidate.connection;
+        }
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try {
+            if (initializer != null) {
+                initializer.initialize(connection);
+            }
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    private void release(Connection physical) {
+        active.decrementAndGet();
+        try {
+            boolean reusable = !shutdown && !physical.isClosed();
+            if (reusable && !physical.getAutoCommit()) {
+                // Never hand the next borrower someone else's open transaction
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                synchronized (idle) {
+                    idle.addFirst(new IdleConnection(physical, System.nanoTime()));
+                }
+            } else {
+                closeQuietly(physical);
+            }
+        } catch (SQLException e) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+        evictExpired();
+    }
+
+    // The borrower gave up on the connection: close it instead of pooling it
+    private void discard(Connection physical) {
+        active.decrementAndGet();
+        try {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        synchronized (idle) {
+            while (!idle.isEmpty() && now - idle.peekLast().idleSince > maxIdleNanos) {
+                closeQuietly(idle.pollLast().connection);
+            }
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        PreparedStatementCache statements = statementCaches.remove(connection);
+        if (statements != null) {
+            statements.closeAll();
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Nothing useful to do with a connection we are discarding anyway
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private boolean returned;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                case "abort":
+                    if (!returned) {
+                        returned = true;
+                        discard(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (statementCacheSize > 0 && "prepareStatement".equals(method.getName()) && isCacheable(args)) {
+                int type = args.length == 3 ? (Integer) args[1] : ResultSet.TYPE_FORWARD_ONLY;
+                int concurrency = args.length == 3 ? (Integer) args[2] : ResultSet.CONCUR_READ_ONLY;
+                return statementCache().prepare((Connection) proxy, (String) args[0], type, concurrency);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        // prepareStatement(sql) or prepareStatement(sql, resultSetType, resultSetConcurrency)
+        private boolean isCacheable(Object[] args) {
+            return args.length == 1
+                    || args.length == 3 && args[1] instanceof Integer && args[2] instanceof Integer;
+        }
+
+        private PreparedStatementCache statementCache() {
+            return statementCaches.computeIfAbsent(physical, connection -> new PreparedStatementCache(
+                    connection, statementCacheSize, statementHits, statementMisses, statementEvictions));
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package com.example.studentperformance;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class DatabaseConnection {    
+public class DatabaseConnection {
     private static final String DB_URL = "jdbc:sqlite:student_performance.db";
-    private Connection connection;
-    private static DatabaseConnection instance;
-    
+
+    // Pool sizing, overridable with -Ddb.pool.* system properties
+    private static final int POOL_MAX_SIZE = Integer.getInteger("db.pool.maxSize", 8);
+    private static final long POOL_MAX_IDLE_MILLIS = Long.getLong("db.pool.maxIdleMillis", 5 * 60 * 1000L);
+    private static final long POOL_BORROW_TIMEOUT_MILLIS = Long.getLong("db.pool.borrowTimeoutMillis", 30 * 1000L);
+    private static final int POOL_VALIDATION_TIMEOUT_SECONDS = 2;
+    // Compiled statements kept per connection; 0 prepares every statement afresh
+    private static final int POOL_STATEMENT_CACHE_SIZE = Integer.getInteger("db.pool.statementCacheSize", 64);
+
+    private final SqlitePragmaProfile pragmaProfile;
+    private final ConnectionPool pool;
+    private ScheduledExecutorService checkpointScheduler;
+
     static {
         try {
             Class.forName("org.sqlite.JDBC");
@@ -17,39 +30,89 @@ public class DatabaseConnection {
         }
     }
 
-    private DatabaseConnection() {
-        connect();
+    // Lazy, thread-safe initialization via the holder idiom
+    private static class Holder {
+        private static final DatabaseConnection INSTANCE = new DatabaseConnection();
     }
 
-    private void connect() {
+    private DatabaseConnection() {
+        pragmaProfile = SqlitePragmaProfile.fromSystemProperties();
+        pool = new ConnectionPool(DB_URL, POOL_MAX_SIZE, POOL_MAX_IDLE_MILLIS, POOL_BORROW_TIMEOUT_MILLIS,
+                POOL_VALIDATION_TIMEOUT_SECONDS, POOL_STATEMENT_CACHE_SIZE, this::configure);
+
+        // Fail fast if the database cannot be opened at all
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(DB_URL);
-                // Enable foreign keys
-                connection.createStatement().execute("PRAGMA foreign_keys = ON");
-            }
+            // Connection is returned to the pool straight away
+            pool.borrow().close();
         } catch (SQLException e) {
             throw new RuntimeException("Failed to connect to database", e);
         }
+
+        if (pragmaProfile.isWal() && pragmaProfile.getCheckpointIntervalSeconds() > 0) {
+            startCheckpointScheduler(pragmaProfile.getCheckpointIntervalSeconds());
+        }
     }
 
-    public static DatabaseConnection getInstance() {
-        if (instance == null) {
-            instance = new DatabaseConnection();
+    private void configure(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            // Enable foreign keys
+            stmt.execute("PRAGMA foreign_keys = ON");
         }
-        return instance;
+        pragmaProfile.apply(connection);
+    }
+
+    // Periodically fold the WAL back into the database so it does not grow without bound
+    // while long-running report reads keep the automatic checkpoint from completing
+    private void startCheckpointScheduler(int intervalSeconds) {
+        checkpointScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sqlite-wal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checkpointScheduler.scheduleWithFixedDelay(() -> checkpoint("PASSIVE"),
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
     }
 
+    private void checkpoint(String mode) {
+        try (Connection connection = pool.borrow();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA wal_checkpoint(" + mode + ")");
+        } catch (SQLException e) {
+            System.err.println("WAL checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    public static DatabaseConnection getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Borrows a connection from the pool. Callers must close it (try-with-resources)
+     * to hand it back.
+     */
     public static Connection getConnection() {
-        Connection conn = getInstance().connection;
         try {
-            if (conn == null || conn.isClosed()) {
-                getInstance().connect();
-                conn = getInstance().connection;
-            }
+            return getInstance().pool.borrow();
         } catch (SQLException e) {
             throw new RuntimeException("Database connection is not valid", e);
         }
-        return conn;
     }
-}
\ No newline at end of file
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return getInstance().pool.getStats();
+    }
+
+    public static SqlitePragmaProfile getPragmaProfile() {
+        return getInstance().pragmaProfile;
+    }
+
+    public static void shutdown() {
+        DatabaseConnection instance = getInstance();
+        if (instance.checkpointScheduler != null) {
+            instance.checkpointScheduler.shutdownNow();
+            // Leave a compact database file behind on a clean exit
+            instance.checkpoint("TRUNCATE");
+        }
+        instance.pool.shutdown();
+    }
+}
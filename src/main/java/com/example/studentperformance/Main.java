@@ -9,8 +9,9 @@ public class Main {
         System.out.println("Application started");
 
         try {
-            DatabaseConnection.getInstance(); // Initialize database connection
-//            init_db.initializeDatabase(); // Initialize database schema
+            DatabaseConnection.getInstance(); // Initialize database connection pool
+            Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConnection::shutdown));
+            SchemaMigrator.migrateDatabase(); // Create or upgrade the database schema
 
             SwingUtilities.invokeLater(() -> {
                 MainUI mainUI = new MainUI();
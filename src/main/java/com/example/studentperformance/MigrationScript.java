@@ -0,0 +1,168 @@
+package com.example.studentperformance;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One numbered schema migration, loaded from a {@code V<version>__<description>.sql} script.
+ * <p>
+ * The checksum covers the script text with line endings normalized, so a script cannot be
+ * edited after it has been applied without {@link SchemaMigrator} noticing.
+ */
+final class MigrationScript {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private final int version;
+    private final String description;
+    private final String fileName;
+    private final String checksum;
+    private final List<String> statements;
+
+    private MigrationScript(int version, String description, String fileName, String checksum,
+                            List<String> statements) {
+        this.version = version;
+        this.description = description;
+        this.fileName = fileName;
+        this.checksum = checksum;
+        this.statements = statements;
+    }
+
+    static MigrationScript parse(String fileName, String text) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Migration script name must look like V1__description.sql: " + fileName);
+        }
+        String normalized = text.replace("\r\n", "\n").replace('\r', '\n');
+        return new MigrationScript(
+                Integer.parseInt(matcher.group(1)),
+                matcher.group(2).replace('_', ' '),
+                fileName,
+                sha256(normalized),
+                split(normalized));
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    String getChecksum() {
+        return checksum;
+    }
+
+    List<String> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Splits a script into statements at semicolons, skipping comments and semicolons inside
+     * quotes. Inside CREATE TRIGGER the split waits for the END that closes the body; CASE
+     * expressions are counted so their END does not close it early.
+     */
+    static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        List<String> leadingWords = new ArrayList<>();
+        int depth = 0;
+        int i = 0;
+        while (i < script.length()) {
+            char c = script.charAt(i);
+            if (c == '-' && script.startsWith("--", i)) {
+                int end = script.indexOf('\n', i);
+                i = end < 0 ? script.length() : end;
+            } else if (c == '/' && script.startsWith("/*", i)) {
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? script.length() : end + 2;
+                current.append(' ');
+            } else if (c == '\'' || c == '"' || c == '`' || c == '[') {
+                char close = c == '[' ? ']' : c;
+                int end = i + 1;
+                while (end < script.length()) {
+                    if (script.charAt(end) == close) {
+                        // A doubled quote is an escaped quote, not the end of the literal
+                        if (close != ']' && end + 1 < script.length() && script.charAt(end + 1) == close) {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                end = Math.min(end + 1, script.length());
+                current.append(script, i, end);
+                i = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i;
+                while (end < script.length() && (Character.isLetterOrDigit(script.charAt(end)) || script.charAt(end) == '_')) {
+                    end++;
+                }
+                String word = script.substring(i, end).toUpperCase(Locale.ROOT);
+                if (leadingWords.size() < 3) {
+                    leadingWords.add(word);
+                }
+                if (isTrigger(leadingWords)) {
+                    if (word.equals("BEGIN") || word.equals("CASE")) {
+                        depth++;
+                    } else if (word.equals("END")) {
+                        depth--;
+                    }
+                }
+                current.append(script, i, end);
+                i = end;
+            } else if (c == ';' && depth == 0) {
+                addStatement(statements, current);
+                current.setLength(0);
+                leadingWords.clear();
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    // CREATE [TEMP|TEMPORARY] TRIGGER
+    private static boolean isTrigger(List<String> leadingWords) {
+        if (leadingWords.size() < 2 || !leadingWords.get(0).equals("CREATE")) {
+            return false;
+        }
+        String second = leadingWords.get(1);
+        if (second.equals("TEMP") || second.equals("TEMPORARY")) {
+            return leadingWords.size() == 3 && leadingWords.get(2).equals("TRIGGER");
+        }
+        return second.equals("TRIGGER");
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder statement) {
+        String sql = statement.toString().trim();
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
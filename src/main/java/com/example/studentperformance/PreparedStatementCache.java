@@ -0,0 +1,198 @@
+package com.example.studentperformance;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prepared statements of one physical connection, kept open for reuse once the caller closes
+ * them. SQLite compiles every statement into a bytecode program; reusing the compiled program
+ * skips parsing and planning, which is most of the cost of a primary key lookup.
+ * <p>
+ * A statement is checked out while in use, so preparing the same SQL twice on one connection
+ * still yields two independent statements. Closing the handle the caller got closes the
+ * result sets it produced, clears the parameters, batch and warnings and puts the statement
+ * back; when more than the configured number are idle, the least recently used one is really
+ * closed. SQLite recompiles a cached statement by itself when the schema changes underneath it.
+ */
+class PreparedStatementCache {
+
+    private final Connection physical;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final Map<String, PreparedStatement> idle;
+
+    PreparedStatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        // Access order, so the eldest entry is the statement unused for longest
+        this.idle = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > PreparedStatementCache.this.maxSize) {
+                    PreparedStatementCache.this.evictions.incrementAndGet();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a handle to a cached or newly prepared statement. The handle reports the pooled
+     * connection as its connection, and closing it returns the statement to the cache.
+     */
+    PreparedStatement prepare(Connection pooled, String sql, int resultSetType, int resultSetConcurrency)
+            throws SQLException {
+        String key = resultSetType + ":" + resultSetConcurrency + ":" + sql;
+        PreparedStatement statement;
+        synchronized (this) {
+            statement = idle.remove(key);
+        }
+        if (statement != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            statement = physical.prepareStatement(sql, resultSetType, resultSetConcurrency);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatementCache.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new CachedStatementHandler(pooled, key, statement));
+    }
+
+    // Closes every idle statement, before the physical connection itself is closed
+    synchronized void closeAll() {
+        for (PreparedStatement statement : idle.values()) {
+            closeQuietly(statement);
+        }
+        idle.clear();
+    }
+
+    private void giveBack(String key, PreparedStatement statement) {
+        try {
+            if (physical.isClosed()) {
+                return;
+            }
+            // Leave nothing of this use behind for the next caller of the same SQL
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            return;
+        }
+        PreparedStatement displaced;
+        synchronized (this) {
+            displaced = idle.put(key, statement);
+        }
+        // The same SQL was checked out twice; keep one copy
+        if (displaced != null) {
+            closeQuietly(displaced);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // The statement is being discarded anyway
+        }
+    }
+
+    private class CachedStatementHandler implements InvocationHandler {
+        private final Connection pooled;
+        private final String key;
+        private final PreparedStatement statement;
+        private final int fetchSize;
+        private final int maxRows;
+        private final int queryTimeout;
+        private final List<ResultSet> resultSets = new ArrayList<>(1);
+        private boolean closed;
+
+        CachedStatementHandler(Connection pooled, String key, PreparedStatement statement) throws SQLException {
+            this.pooled = pooled;
+            this.key = key;
+            this.statement = statement;
+            // Settings the caller may change, restored before the statement is reused
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "getConnection":
+                    return pooled;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                resultSets.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        private void release() {
+            try {
+                // An open result set keeps the statement mid-step, holding SQLite's read snapshot
+                for (ResultSet rs : resultSets) {
+                    rs.close();
+                }
+                if (statement.getFetchSize() != fetchSize) {
+                    statement.setFetchSize(fetchSize);
+                }
+                if (statement.getMaxRows() != maxRows) {
+                    statement.setMaxRows(maxRows);
+                }
+                if (statement.getQueryTimeout() != queryTimeout) {
+                    statement.setQueryTimeout(queryTimeout);
+                }
+            } catch (SQLException e) {
+                closeQuietly(statement);
+                return;
+            }
+            giveBack(key, statement);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.studentperformance;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lets another thread stop the database work of a background task, e.g. a search that has
+ * been superseded by the next keystroke.
+ * <p>
+ * {@link #run} binds the scope to the calling thread; every DAO call made inside it gets a
+ * connection that records the statements it creates. {@link #cancel} calls
+ * {@link Statement#cancel()} on those still open, which sqlite-jdbc turns into
+ * {@code sqlite3_interrupt}, so the running query stops with an error instead of reading on
+ * to the end. Statements are forgotten when their connection is closed, before it goes back
+ * to the pool, so a late cancel never reaches another thread's query.
+ */
+public final class QueryCancellation {
+
+    // Work whose queries can be cancelled
+    public interface Work<T> {
+        T execute() throws Exception;
+    }
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    // Connections handed out in this scope and not yet closed; guarded by this
+    private final Set<TrackingHandler> open = new HashSet<>();
+    private boolean cancelled;
+
+    public <T> T run(Work<T> work) throws Exception {
+        QueryCancellation outer = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.execute();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    // Stops the statements running in this scope; later statements fail as soon as they are created
+    public synchronized void cancel() {
+        cancelled = true;
+        for (TrackingHandler handler : open) {
+            for (Statement statement : handler.statements) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    // Already finished or closed; nothing left to stop
+                }
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns the connection to hand to a DAO: unchanged outside a scope, otherwise wrapped
+     * so its statements can be cancelled.
+     */
+    public static Connection track(Connection connection) {
+        QueryCancellation current = CURRENT.get();
+        if (current == null) {
+            return connection;
+        }
+        TrackingHandler handler = current.new TrackingHandler(connection);
+        synchronized (current) {
+            current.open.add(handler);
+        }
+        return (Connection) Proxy.newProxyInstance(
+                QueryCancellation.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                handler);
+    }
+
+    private class TrackingHandler implements InvocationHandler {
+        private final Connection connection;
+        // Guarded by the enclosing QueryCancellation
+        private final List<Statement> statements = new ArrayList<>();
+
+        TrackingHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (QueryCancellation.this) {
+                        open.remove(this);
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cancellable[" + connection + "]";
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                synchronized (QueryCancellation.this) {
+                    if (cancelled) {
+                        ((Statement) result).close();
+                        throw new SQLException("Query cancelled");
+                    }
+                    statements.add((Statement) result);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.studentperformance;
+
+import com.example.studentperformance.dao.AttendanceDateCodec;
+import com.example.studentperformance.dao.QueryPlanCheck;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates and upgrades the database schema from the numbered scripts listed in
+ * {@code db/migration/migrations.list} on the classpath.
+ * <p>
+ * Applied scripts are recorded with their checksum in the {@code schema_version} table, and
+ * {@code PRAGMA user_version} mirrors the latest applied version so that an up-to-date
+ * database is recognised at startup without taking a write lock. Each script runs in its own
+ * {@code BEGIN IMMEDIATE} transaction together with its bookkeeping, so a failed script leaves
+ * the database at the previous version. Before upgrading a database that already holds data
+ * it is copied with {@code VACUUM INTO}; set {@code -Ddb.migration.backup=false} to skip that.
+ * Scripts never drop rows silently: rows that stand in the way of a new unique key are moved
+ * into a {@code *_duplicates} quarantine table, and the migration reports how many it moved.
+ * An Attendance table still in the layout of the original {@code database.sql}, with a
+ * {@code status} of 'present' or 'absent' instead of the {@code present} flag, is rebuilt into
+ * the current layout before the first pending script runs.
+ * <p>
+ * Optional storage changes that not every installation wants are applied afterwards, on
+ * request: {@code -Ddb.attendance.dateEncoding=epoch_day} (or {@code iso_text}) converts the
+ * stored attendance dates, see {@link AttendanceDateCodec}.
+ */
+public class SchemaMigrator {
+
+    public static class MigrationException extends Exception {
+        public MigrationException(String message) {super(message);}
+        public MigrationException(String message, Throwable cause) {super(message, cause);}
+    }
+
+    private static final String SCRIPT_LOCATION = "db/migration/";
+    private static final String SCRIPT_INDEX = SCRIPT_LOCATION + "migrations.list";
+
+    // Attendance as the original database.sql created it, with a status text column instead of the
+    // present flag; V1 leaves an existing table alone, so it is rebuilt before any script runs
+    private static final String[] LEGACY_ATTENDANCE_REBUILD = {
+            "CREATE TABLE Attendance_present (" +
+                    "attendance_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "student_id INTEGER NOT NULL," +
+                    "subject_id INTEGER NOT NULL," +
+                    "date DATE NOT NULL," +
+                    "present BOOLEAN NOT NULL," +
+                    "FOREIGN KEY (student_id) REFERENCES Students(student_id) ON DELETE CASCADE," +
+                    "FOREIGN KEY (subject_id) REFERENCES Subjects(subject_id) ON DELETE CASCADE)",
+            "INSERT INTO Attendance_present (attendance_id, student_id, subject_id, date, present) " +
+                    "SELECT attendance_id, student_id, subject_id, date, status = 'present' FROM Attendance",
+            "DROP TABLE Attendance",
+            "ALTER TABLE Attendance_present RENAME TO Attendance"
+    };
+
+    // Tables the scripts move rows into instead of deleting them, checked after every migration
+    private static final String[] QUARANTINE_TABLES = {"Grades_duplicates", "Attendance_duplicates"};
+
+    private static final DateTimeFormatter BACKUP_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final List<MigrationScript> scripts;
+    private final boolean backupEnabled;
+
+    public SchemaMigrator() {
+        this(loadScripts(), Boolean.parseBoolean(System.getProperty("db.migration.backup", "true")));
+    }
+
+    SchemaMigrator(List<MigrationScript> scripts, boolean backupEnabled) {
+        for (int i = 0; i < scripts.size(); i++) {
+            if (scripts.get(i).getVersion() != i + 1) {
+                throw new IllegalStateException("Migration scripts must be numbered 1, 2, 3, ... in order; found "
+                        + scripts.get(i).getFileName() + " at position " + (i + 1));
+            }
+        }
+        this.scripts = scripts;
+        this.backupEnabled = backupEnabled;
+    }
+
+    // Migrates the application database and warns about DAO statements left without an index
+    public static void migrateDatabase() {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            SchemaMigrator migrator = new SchemaMigrator();
+            migrator.migrate(connection);
+            migrator.applyAttendanceDateEncoding(connection, System.getProperty("db.attendance.dateEncoding"));
+            QueryPlanCheck.findFullScans(connection)
+                    .forEach(problem -> System.err.println("Warning: full table scan in " + problem));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to migrate database: " + e.getMessage(), e);
+        }
+    }
+
+    public int getLatestVersion() {
+        return scripts.isEmpty() ? 0 : scripts.get(scripts.size() - 1).getVersion();
+    }
+
+    /**
+     * Applies every pending script and returns how many were applied. Fails without changing
+     * anything if an applied script has since been edited or removed.
+     */
+    public int migrate(Connection connection) throws MigrationException {
+        try {
+            int userVersion = readUserVersion(connection);
+            boolean tracked = hasSchemaVersionTable(connection);
+
+            // Fast path: nothing to apply, only confirm the applied scripts are unchanged
+            if (tracked && userVersion == getLatestVersion()) {
+                validate(loadApplied(connection));
+                System.out.println("Database schema is up to date (version " + userVersion + ")");
+                return 0;
+            }
+
+            if (!tracked) {
+                createSchemaVersionTable(connection);
+            }
+
+            Map<Integer, String> applied = loadApplied(connection);
+            validate(applied);
+            List<MigrationScript> pending = new ArrayList<>();
+            for (MigrationScript script : scripts) {
+                if (!applied.containsKey(script.getVersion())) {
+                    pending.add(script);
+                }
+            }
+            if (pending.isEmpty()) {
+                setUserVersion(connection, getLatestVersion());
+                return 0;
+            }
+
+            if (backupEnabled && hasUserTables(connection)) {
+                backup(connection, applied.size());
+            }
+            if (hasLegacyAttendanceStatus(connection)) {
+                convertLegacyAttendance(connection);
+            }
+            Map<String, Long> quarantinedBefore = countQuarantined(connection);
+            int count = 0;
+            for (MigrationScript script : pending) {
+                if (apply(connection, script)) {
+                    count++;
+                }
+            }
+            // Let the planner pick up statistics for the new indexes
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA optimize");
+            }
+            System.out.println("Database migrated to version " + getLatestVersion());
+            reportQuarantined(quarantinedBefore, countQuarantined(connection));
+            return count;
+        } catch (SQLException e) {
+            throw new MigrationException("Error migrating database: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Converts the stored attendance dates when the requested encoding differs from the one
+     * the database uses; does nothing when no encoding is requested.
+     */
+    public void applyAttendanceDateEncoding(Connection connection, String requested) throws MigrationException {
+        if (requested == null || requested.isBlank()) {
+            return;
+        }
+        AttendanceDateCodec target = AttendanceDateCodec.fromSettingValue(requested.trim());
+        try {
+            if (AttendanceDateCodec.detect(connection) == target) {
+                return;
+            }
+            if (backupEnabled && hasUserTables(connection)) {
+                backup(connection, readUserVersion(connection));
+            }
+            long start = System.nanoTime();
+            AttendanceDateCodec.convert(connection, target);
+            System.out.println("Converted attendance dates to " + target.getSettingValue() + " in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (SQLException e) {
+            throw new MigrationException("Error converting attendance dates: " + e.getMessage(), e);
+        }
+    }
+
+    // Returns false if another process applied the script first
+    private boolean apply(Connection connection, MigrationScript script) throws MigrationException, SQLException {
+        long start = System.nanoTime();
+        try (Statement stmt = connection.createStatement()) {
+            // IMMEDIATE takes the write lock up front, so two instances starting together take turns
+            stmt.execute("BEGIN IMMEDIATE");
+            try {
+                if (loadApplied(connection).containsKey(script.getVersion())) {
+                    stmt.execute("ROLLBACK");
+                    return false;
+                }
+                for (String sql : script.getStatements()) {
+                    stmt.execute(sql);
+                }
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO schema_version (version, description, script, checksum, execution_millis) " +
+                        "VALUES (?, ?, ?, ?, ?)")) {
+                    insert.setInt(1, script.getVersion());
+                    insert.setString(2, script.getDescription());
+                    insert.setString(3, script.getFileName());
+                    insert.setString(4, script.getChecksum());
+                    insert.setLong(5, millis);
+                    insert.executeUpdate();
+                }
+                stmt.execute("PRAGMA user_version = " + script.getVersion());
+                stmt.execute("COMMIT");
+                System.out.println("Applied migration V" + script.getVersion() + " (" + script.getDescription()
+                        + ") in " + millis + " ms");
+                return true;
+            } catch (SQLException e) {
+                stmt.execute("ROLLBACK");
+                throw new MigrationException("Migration V" + script.getVersion() + " (" + script.getDescription()
+                        + ") failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a legacy Attendance table with present = 1 where status was 'present', keeping
+     * the ids. Indexes go with the dropped table, so the ones it had, e.g. from V1 and V2 when
+     * an earlier run stopped at V3, are created again on the new one.
+     */
+    private static void convertLegacyAttendance(Connection connection) throws MigrationException, SQLException {
+        long start = System.nanoTime();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("BEGIN IMMEDIATE");
+            try {
+                List<String> indexes = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery("SELECT sql FROM sqlite_master " +
+                        "WHERE type = 'index' AND tbl_name = 'Attendance' AND sql IS NOT NULL")) {
+                    while (rs.next()) {
+                        indexes.add(rs.getString(1));
+                    }
+                }
+                for (String sql : LEGACY_ATTENDANCE_REBUILD) {
+                    stmt.execute(sql);
+                }
+                for (String sql : indexes) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("COMMIT");
+            } catch (SQLException e) {
+                stmt.execute("ROLLBACK");
+                throw new MigrationException("Converting Attendance.status to present failed: " + e.getMessage(), e);
+            }
+        }
+        System.out.println("Converted Attendance.status to the present flag in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // True when Attendance has the status column of the original database.sql and no present flag
+    private static boolean hasLegacyAttendanceStatus(Connection connection) throws SQLException {
+        boolean status = false;
+        boolean present = false;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(Attendance)")) {
+            while (rs.next()) {
+                String column = rs.getString("name");
+                status |= "status".equalsIgnoreCase(column);
+                present |= "present".equalsIgnoreCase(column);
+            }
+        }
+        return status && !present;
+    }
+
+    // Rows in each quarantine table that exists
+    private static Map<String, Long> countQuarantined(Connection connection) throws SQLException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String table : QUARANTINE_TABLES) {
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+                pstmt.setString(1, table);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        continue;
+                    }
+                }
+            }
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                counts.put(table, rs.next() ? rs.getLong(1) : 0L);
+            }
+        }
+        return counts;
+    }
+
+    private static void reportQuarantined(Map<String, Long> before, Map<String, Long> after) {
+        for (Map.Entry<String, Long> entry : after.entrySet()) {
+            long moved = entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+            if (moved > 0) {
+                String table = entry.getKey();
+                System.err.println("Warning: migration moved " + moved + " duplicate rows from "
+                        + table.substring(0, table.length() - "_duplicates".length()) + " into " + table
+                        + "; they are no longer shown by the application, review them there");
+            }
+        }
+    }
+
+    private void validate(Map<Integer, String> applied) throws MigrationException {
+        for (Map.Entry<Integer, String> entry : applied.entrySet()) {
+            int version = entry.getKey();
+            if (version > getLatestVersion()) {
+                throw new MigrationException("Database schema version " + version
+                        + " is newer than this application supports (" + getLatestVersion() + ")");
+            }
+            MigrationScript script = scripts.get(version - 1);
+            if (!script.getChecksum().equals(entry.getValue())) {
+                throw new MigrationException("Migration " + script.getFileName()
+                        + " was changed after it was applied (checksum " + entry.getValue()
+                        + ", now " + script.getChecksum() + ")");
+            }
+        }
+    }
+
+    private static Map<Integer, String> loadApplied(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new LinkedHashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version ORDER BY version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void createSchemaVersionTable(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                "version INTEGER PRIMARY KEY," +
+                "description TEXT NOT NULL," +
+                "script TEXT NOT NULL," +
+                "checksum TEXT NOT NULL," +
+                "installed_on TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+                "execution_millis INTEGER NOT NULL)");
+        }
+    }
+
+    private static void backup(Connection connection, int fromVersion) throws SQLException {
+        String path = null;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA database_list")) {
+            while (rs.next()) {
+                if ("main".equals(rs.getString("name"))) {
+                    path = rs.getString("file");
+                }
+            }
+        }
+        if (path == null || path.isEmpty()) {
+            return; // In-memory database, nothing to copy
+        }
+        String target = path + ".v" + fromVersion + "-" + LocalDateTime.now().format(BACKUP_TIMESTAMP) + ".bak";
+        long start = System.nanoTime();
+        // A consistent, compacted copy taken through SQLite, safe while other connections are open
+        try (PreparedStatement pstmt = connection.prepareStatement("VACUUM INTO ?")) {
+            pstmt.setString(1, target);
+            pstmt.execute();
+        }
+        System.out.println("Backed up database to " + target + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static int readUserVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void setUserVersion(Connection connection, int version) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + version);
+        }
+    }
+
+    private static boolean hasSchemaVersionTable(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'schema_version'")) {
+            return rs.next();
+        }
+    }
+
+    private static boolean hasUserTables(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' " +
+                     "AND name NOT LIKE 'sqlite_%' AND name <> 'schema_version' LIMIT 1")) {
+            return rs.next();
+        }
+    }
+
+    private static List<MigrationScript> loadScripts() {
+        ClassLoader classLoader = SchemaMigrator.class.getClassLoader();
+        List<MigrationScript> scripts = new ArrayList<>();
+        for (String line : readResource(classLoader, SCRIPT_INDEX).split("\n")) {
+            String fileName = line.trim();
+            if (fileName.isEmpty() || fileName.startsWith("#")) {
+                continue;
+            }
+            scripts.add(MigrationScript.parse(fileName, readResource(classLoader, SCRIPT_LOCATION + fileName)));
+        }
+        return scripts;
+    }
+
+    private static String readResource(ClassLoader classLoader, String resource) {
+        try (InputStream is = classLoader.getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IllegalStateException("Missing migration resource: " + resource);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read migration resource: " + resource, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.studentperformance;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The set of SQLite pragmas applied to every pooled connection.
+ * <p>
+ * Defaults favour concurrent readers: WAL journaling lets report queries run while
+ * attendance is being written, and {@code synchronous=NORMAL} is durable enough in WAL
+ * mode while avoiding an fsync per commit. Every value can be overridden with a
+ * {@code -Ddb.pragma.*} system property.
+ */
+public class SqlitePragmaProfile {
+    private final String journalMode;
+    private final String synchronous;
+    private final int cacheSizeKib;
+    private final long mmapSizeBytes;
+    private final String tempStore;
+    private final int busyTimeoutMillis;
+    private final int checkpointIntervalSeconds;
+
+    public SqlitePragmaProfile(String journalMode, String synchronous, int cacheSizeKib, long mmapSizeBytes,
+                               String tempStore, int busyTimeoutMillis, int checkpointIntervalSeconds) {
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.cacheSizeKib = cacheSizeKib;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.tempStore = tempStore;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+    }
+
+    public static SqlitePragmaProfile fromSystemProperties() {
+        return new SqlitePragmaProfile(
+                System.getProperty("db.pragma.journalMode", "WAL"),
+                System.getProperty("db.pragma.synchronous", "NORMAL"),
+                Integer.getInteger("db.pragma.cacheSizeKib", 64 * 1024),
+                Long.getLong("db.pragma.mmapSizeBytes", 256L * 1024 * 1024),
+                System.getProperty("db.pragma.tempStore", "MEMORY"),
+                Integer.getInteger("db.pragma.busyTimeoutMillis", 5000),
+                Integer.getInteger("db.pragma.checkpointIntervalSeconds", 60));
+    }
+
+    public void apply(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            // busy_timeout first so the remaining pragmas wait out a concurrent writer
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            stmt.execute("PRAGMA journal_mode = " + identifier(journalMode));
+            stmt.execute("PRAGMA synchronous = " + identifier(synchronous));
+            // A negative cache_size is interpreted by SQLite as KiB rather than pages
+            stmt.execute("PRAGMA cache_size = " + (-Math.abs(cacheSizeKib)));
+            stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+            stmt.execute("PRAGMA temp_store = " + identifier(tempStore));
+        }
+    }
+
+    public boolean isWal() {
+        return "WAL".equalsIgnoreCase(journalMode);
+    }
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public int getCacheSizeKib() {
+        return cacheSizeKib;
+    }
+
+    public long getMmapSizeBytes() {
+        return mmapSizeBytes;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public int getBusyTimeoutMillis() {
+        return busyTimeoutMillis;
+    }
+
+    public int getCheckpointIntervalSeconds() {
+        return checkpointIntervalSeconds;
+    }
+
+    // Pragma values cannot be bound as parameters, so only accept plain keywords
+    private static String identifier(String value) {
+        if (value == null || !value.matches("[A-Za-z_]+")) {
+            throw new IllegalArgumentException("Invalid pragma value: " + value);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "journal_mode=" + journalMode + ", synchronous=" + synchronous + ", cache_size=" + cacheSizeKib
+                + "KiB, mmap_size=" + mmapSizeBytes + ", temp_store=" + tempStore
+                + ", busy_timeout=" + busyTimeoutMillis + "ms, checkpoint every " + checkpointIntervalSeconds + "s";
+    }
+}
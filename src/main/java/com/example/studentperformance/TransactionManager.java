@@ -0,0 +1,222 @@
+package com.example.studentperformance;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Runs several DAO calls as one database transaction.
+ * <p>
+ * {@link #inTransaction} borrows one pooled connection, starts a {@code BEGIN IMMEDIATE}
+ * transaction on it and binds it to the calling thread; every DAO call the unit of work makes
+ * on that thread is handed the same connection, so everything commits together with a single
+ * sync, or not at all. A unit of work started inside another becomes a savepoint: if it fails
+ * only its own changes are rolled back and the outer unit can carry on.
+ * <p>
+ * DAO methods that manage their own transaction join the surrounding one: their
+ * {@code setAutoCommit} and {@code commit} calls are ignored, and a {@code rollback} marks the
+ * innermost unit of work so it is rolled back when it ends, even if the caller swallowed the
+ * exception. Work handed to other threads does not join.
+ * <p>
+ * If a rollback itself fails the transaction's state is unknown: every open unit of work is
+ * rolled back, and the connection is aborted so the pool closes it instead of handing a
+ * possibly still open transaction to the next borrower.
+ */
+public final class TransactionManager {
+
+    // A unit of work with a result
+    public interface UnitOfWork<T> {
+        T execute() throws Exception;
+    }
+
+    // A unit of work without a result
+    public interface Action {
+        void execute() throws Exception;
+    }
+
+    private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<>();
+
+    private TransactionManager() {
+    }
+
+    /**
+     * Runs the work in a transaction and commits it, or rolls it back if the work throws.
+     * Inside another unit of work on the same thread it runs in a savepoint instead.
+     */
+    public static <T> T inTransaction(UnitOfWork<T> work) throws Exception {
+        Transaction current = CURRENT.get();
+        if (current != null) {
+            return current.run(work);
+        }
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            Transaction transaction = new Transaction(connection);
+            CURRENT.set(transaction);
+            try {
+                return transaction.run(work);
+            } finally {
+                CURRENT.remove();
+                if (transaction.broken) {
+                    connection.abort(Runnable::run);
+                }
+                transaction.completed();
+            }
+        }
+    }
+
+    public static void inTransaction(Action action) throws Exception {
+        inTransaction(() -> {
+            action.execute();
+            return null;
+        });
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * The connection of the calling thread's unit of work, or null outside one. Closing it
+     * does not end the transaction.
+     */
+    public static Connection currentConnection() {
+        Transaction current = CURRENT.get();
+        return current == null ? null : current.joined;
+    }
+
+    /**
+     * Runs the callback once the calling thread's unit of work has committed or rolled back,
+     * or straight away outside one; e.g. to drop cached rows the transaction may have changed.
+     */
+    public static void afterCompletion(Runnable callback) {
+        Transaction current = CURRENT.get();
+        if (current == null) {
+            callback.run();
+        } else {
+            current.callbacks.add(callback);
+        }
+    }
+
+    private static final class Transaction {
+        private final Connection connection;
+        private final Connection joined;
+        // One entry per open unit of work: true once a DAO has asked for a rollback
+        private final Deque<boolean[]> rollbackOnly = new ArrayDeque<>();
+        private final List<Runnable> callbacks = new ArrayList<>();
+        private int savepoints;
+        // Set once a rollback has failed and the connection can no longer be trusted
+        private boolean broken;
+
+        Transaction(Connection connection) {
+            this.connection = connection;
+            this.joined = (Connection) Proxy.newProxyInstance(
+                    TransactionManager.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new JoinedConnectionHandler());
+        }
+
+        <T> T run(UnitOfWork<T> work) throws Exception {
+            boolean outermost = rollbackOnly.isEmpty();
+            String savepoint = outermost ? null : "unit_of_work_" + (++savepoints);
+            execute(outermost ? "BEGIN IMMEDIATE" : "SAVEPOINT " + savepoint);
+            rollbackOnly.push(new boolean[1]);
+
+            T result;
+            try {
+                result = work.execute();
+            } catch (Throwable e) {
+                rollbackOnly.pop();
+                rollBackQuietly(savepoint, e);
+                throw e;
+            }
+            if (rollbackOnly.pop()[0]) {
+                SQLException e = new SQLException("Unit of work rolled back after a failed database call");
+                rollBackQuietly(savepoint, e);
+                throw e;
+            }
+            try {
+                execute(outermost ? "COMMIT" : "RELEASE " + savepoint);
+            } catch (SQLException e) {
+                rollBackQuietly(savepoint, e);
+                throw e;
+            }
+            return result;
+        }
+
+        // A null savepoint rolls back the whole transaction
+        private void rollBackQuietly(String savepoint, Throwable cause) {
+            try {
+                if (savepoint == null) {
+                    execute("ROLLBACK");
+                } else {
+                    // ROLLBACK TO keeps the savepoint open, so release it as well
+                    execute("ROLLBACK TO " + savepoint);
+                    execute("RELEASE " + savepoint);
+                }
+            } catch (SQLException e) {
+                cause.addSuppressed(e);
+                // The enclosing units can no longer commit what they think they have
+                broken = true;
+                for (boolean[] unit : rollbackOnly) {
+                    unit[0] = true;
+                }
+            }
+        }
+
+        private void execute(String sql) throws SQLException {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(sql);
+            }
+        }
+
+        void completed() {
+            for (Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+
+        // The connection DAOs see: the transaction's own connection with its lifecycle calls disarmed
+        private class JoinedConnectionHandler implements InvocationHandler {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                    case "setAutoCommit":
+                    case "commit":
+                        return null;
+                    case "getAutoCommit":
+                        return false;
+                    case "rollback":
+                        if (args == null) {
+                            boolean[] innermost = rollbackOnly.peek();
+                            if (innermost != null) {
+                                innermost[0] = true;
+                            }
+                            return null;
+                        }
+                        break;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Joined[" + connection + "]";
+                    default:
+                        break;
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+    }
+}
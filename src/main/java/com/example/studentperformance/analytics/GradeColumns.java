@@ -0,0 +1,75 @@
+package com.example.studentperformance.analytics;
+
+import com.example.studentperformance.dao.GradeDAO;
+
+import java.util.Arrays;
+
+/**
+ * The grade table held column by column in parallel primitive arrays: row i is the grade
+ * {@code grades[i]} of student {@code studentIds[i]} in subject {@code subjectIds[i]}.
+ * <p>
+ * A row costs 16 bytes instead of a {@link GradeDAO.Grade} holder with a boxed Integer, Integer
+ * and Double, and a scan is a tight loop over contiguous arrays. Instances are immutable once
+ * loaded and can be shared between threads.
+ */
+public final class GradeColumns {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int size;
+    private int[] studentIds;
+    private int[] subjectIds;
+    private double[] grades;
+
+    private GradeColumns(int capacity) {
+        int initial = Math.max(capacity, MIN_CAPACITY);
+        studentIds = new int[initial];
+        subjectIds = new int[initial];
+        grades = new double[initial];
+    }
+
+    /**
+     * Reads the whole grade table into columns. The arrays are sized from a count first and
+     * filled from the unboxed row stream, so no per-row object is ever created; grades added
+     * between the count and the read just grow the arrays.
+     */
+    public static GradeColumns load(GradeDAO gradeDAO) throws Exception {
+        GradeColumns columns = new GradeColumns(gradeDAO.countGrades());
+        gradeDAO.forEachGradeValue(columns::append);
+        columns.trim();
+        return columns;
+    }
+
+    private void append(int studentId, int subjectId, double grade) {
+        if (size == grades.length) {
+            resize(size + (size >> 1));
+        }
+        studentIds[size] = studentId;
+        subjectIds[size] = subjectId;
+        grades[size] = grade;
+        size++;
+    }
+
+    private void trim() {
+        if (size < grades.length) {
+            resize(size);
+        }
+    }
+
+    private void resize(int capacity) {
+        studentIds = Arrays.copyOf(studentIds, capacity);
+        subjectIds = Arrays.copyOf(subjectIds, capacity);
+        grades = Arrays.copyOf(grades, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Hands every row to the consumer in storage order
+    public void forEach(GradeDAO.GradeValueConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(studentIds[i], subjectIds[i], grades[i]);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.studentperformance.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Grade aggregates for the student and subject charts, computed in a single pass over the
+ * grades.
+ * <p>
+ * Student and subject ids are mapped to dense indexes so every aggregate lives in a flat
+ * primitive array: per-subject and per-subject-per-band count/sum/min/max and a student x
+ * subject grade matrix. Instances are immutable once computed and can be shared between
+ * threads.
+ */
+public final class GradeStatistics {
+
+    // Letter bands, best first; a grade falls in the first band whose lower bound it reaches
+    public static final int BAND_COUNT = 5;
+    public static final int ALL_BANDS = -1;
+    private static final double[] BAND_LOWER_BOUNDS = {90, 80, 70, 60, Double.NEGATIVE_INFINITY};
+    private static final String[] BAND_LABELS = {"A (90-100)", "B (80-89)", "C (70-79)", "D (60-69)", "F (0-59)"};
+
+    private final DenseIndex students;
+    private final DenseIndex subjects;
+
+    // Indexed by subject * (BAND_COUNT + 1) + slot, where slot BAND_COUNT holds the whole subject
+    private final int[] counts;
+    private final double[] sums;
+    private final double[] mins;
+    private final double[] maxes;
+
+    // Latest grade per student and subject, NaN when there is none
+    private final double[] studentGrades;
+
+    private GradeStatistics(DenseIndex students, DenseIndex subjects) {
+        this.students = students;
+        this.subjects = subjects;
+        int cells = subjects.size() * (BAND_COUNT + 1);
+        counts = new int[cells];
+        sums = new double[cells];
+        mins = new double[cells];
+        maxes = new double[cells];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxes, Double.NEGATIVE_INFINITY);
+        studentGrades = new double[students.size() * subjects.size()];
+        Arrays.fill(studentGrades, Double.NaN);
+    }
+
+    /**
+     * Aggregates the grades in one pass over the columns. Grades whose student or subject is not
+     * among the given ids are left out.
+     */
+    public static GradeStatistics compute(int[] studentIds, int[] subjectIds, GradeColumns grades) {
+        GradeStatistics stats = new GradeStatistics(new DenseIndex(studentIds), new DenseIndex(subjectIds));
+        grades.forEach(stats::add);
+        return stats;
+    }
+
+    private void add(int studentId, int subjectId, double value) {
+        int subject = subjects.indexOf(subjectId);
+        if (subject < 0) {
+            return;
+        }
+        accumulate(cell(subject, BAND_COUNT), value);
+        accumulate(cell(subject, bandOf(value)), value);
+
+        int student = students.indexOf(studentId);
+        if (student >= 0) {
+            studentGrades[student * subjects.size() + subject] = value;
+        }
+    }
+
+    private void accumulate(int cell, double value) {
+        counts[cell]++;
+        sums[cell] += value;
+        if (value < mins[cell]) mins[cell] = value;
+        if (value > maxes[cell]) maxes[cell] = value;
+    }
+
+    private static int cell(int subject, int band) {
+        return subject * (BAND_COUNT + 1) + (band == ALL_BANDS ? BAND_COUNT : band);
+    }
+
+    public static int bandOf(double grade) {
+        for (int band = 0; band < BAND_COUNT - 1; band++) {
+            if (grade >= BAND_LOWER_BOUNDS[band]) {
+                return band;
+            }
+        }
+        return BAND_COUNT - 1;
+    }
+
+    public static String bandLabel(int band) {
+        return BAND_LABELS[band];
+    }
+
+    public double mean(int subjectId, int band) {
+        int subject = subjects.indexOf(subjectId);
+        if (subject < 0 || counts[cell(subject, band)] == 0) {
+            return 0.0;
+        }
+        int cell = cell(subject, band);
+        return sums[cell] / counts[cell];
+    }
+
+    public double min(int subjectId, int band) {
+        int subject = subjects.indexOf(subjectId);
+        return subject < 0 || counts[cell(subject, band)] == 0 ? 0.0 : mins[cell(subject, band)];
+    }
+
+    public double max(int subjectId, int band) {
+        int subject = subjects.indexOf(subjectId);
+        return subject < 0 || counts[cell(subject, band)] == 0 ? 0.0 : maxes[cell(subject, band)];
+    }
+
+    // The student's grade in the subject, or NaN if there is none
+    public double studentGrade(int studentId, int subjectId) {
+        int student = students.indexOf(studentId);
+        int subject = subjects.indexOf(subjectId);
+        if (student < 0 || subject < 0) {
+            return Double.NaN;
+        }
+        return studentGrades[student * subjects.size() + subject];
+    }
+
+    // Maps sparse database ids onto 0..n-1 through a lookup array spanning min..max id
+    private static final class DenseIndex {
+        private final int minId;
+        private final int[] slots;
+        private final int size;
+
+        DenseIndex(int[] ids) {
+            size = ids.length;
+            if (ids.length == 0) {
+                minId = 0;
+                slots = new int[0];
+                return;
+            }
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int id : ids) {
+                min = Math.min(min, id);
+                max = Math.max(max, id);
+            }
+            minId = min;
+            slots = new int[max - min + 1];
+            Arrays.fill(slots, -1);
+            for (int i = 0; i < ids.length; i++) {
+                slots[ids[i] - min] = i;
+            }
+        }
+
+        int indexOf(int id) {
+            int offset = id - minId;
+            return offset >= 0 && offset < slots.length ? slots[offset] : -1;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
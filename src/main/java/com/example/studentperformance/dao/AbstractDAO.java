@@ -1,15 +1,98 @@
 package com.example.studentperformance.dao;
 
+import com.example.studentperformance.DatabaseConnection;
+import com.example.studentperformance.QueryCancellation;
+import com.example.studentperformance.TransactionManager;
+
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public abstract class AbstractDAO {
-    protected Connection connection;
+
+    // Rows the forEach* cursors ask the driver for per fetch, overridable with -Ddb.fetchSize
+    public static final int DEFAULT_FETCH_SIZE = Integer.getInteger("db.fetchSize", 1000);
 
     public static class NotFoundException extends Exception {
         public NotFoundException(String message) {super(message);}
     }
 
-    public AbstractDAO(Connection connection) {
-        this.connection = connection;
+    // Turns the current row of a result set into an object
+    protected interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    // Borrows a pooled connection for a single operation; close it to give it back. Inside a
+    // unit of work this is the transaction's connection, and closing it leaves the transaction open.
+    // Inside a QueryCancellation scope its statements can be cancelled from another thread
+    protected Connection openConnection() {
+        Connection joined = TransactionManager.currentConnection();
+        return QueryCancellation.track(joined != null ? joined : DatabaseConnection.getConnection());
+    }
+
+    /**
+     * Runs the query on a forward-only cursor and hands each row to the consumer as it is read,
+     * so only one row is held at a time. The cursor, statement and connection are closed when
+     * the last row has been consumed or when the consumer throws.
+     */
+    protected <T> void forEachRow(String sql, int fetchSize, RowMapper<T> mapper, Consumer<? super T> consumer)
+            throws SQLException {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be at least 1");
+        }
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                     ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(fetchSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapper.map(rs));
+                }
+            }
+        }
+    }
+
+    // Escapes LIKE wildcards so the term matches literally; use with ESCAPE '\'
+    protected static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Copies one executed batch's update counts into results at offset; returns the next offset
+    protected static int copyCounts(int[] counts, int[] results, int offset) {
+        System.arraycopy(counts, 0, results, offset, counts.length);
+        return offset + counts.length;
+    }
+
+    // The search term as a row id, or null when it is not a whole number
+    protected static Long parseId(String term) {
+        try {
+            return Long.parseLong(term);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs a query with positional parameters and collects every mapped row. Meant for
+     * bounded reads such as one LIMIT page; use forEachRow for whole tables.
+     */
+    protected <T> List<T> queryList(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+            }
+        }
+        return rows;
     }
-}
\ No newline at end of file
+}
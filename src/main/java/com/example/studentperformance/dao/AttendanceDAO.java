@@ -1,10 +1,15 @@
 package com.example.studentperformance.dao;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AttendanceDAO {
 
+    // Rows sent to the driver per executeBatch call when no chunk size is given
+    int DEFAULT_BATCH_CHUNK_SIZE = 500;
+
     class Attendance {
         private Integer studentId;
         private Integer subjectId;
@@ -56,6 +61,62 @@ public interface AttendanceDAO {
         
     }
 
+    // An attendance row already joined with the student and subject names, for display.
+    // Names are null when the referenced student or subject no longer exists.
+    class AttendanceView {
+        private final int attendanceId;
+        private final int studentId;
+        private final String studentName;
+        private final int subjectId;
+        private final String subjectName;
+        private final LocalDate date;
+        private final boolean present;
+
+        public AttendanceView(int attendanceId, int studentId, String studentName, int subjectId,
+                              String subjectName, LocalDate date, boolean present) {
+            this.attendanceId = attendanceId;
+            this.studentId = studentId;
+            this.studentName = studentName;
+            this.subjectId = subjectId;
+            this.subjectName = subjectName;
+            this.date = date;
+            this.present = present;
+        }
+
+        public int getAttendanceId() {
+            return attendanceId;
+        }
+
+        public int getStudentId() {
+            return studentId;
+        }
+
+        public String getStudentName() {
+            return studentName;
+        }
+
+        public int getSubjectId() {
+            return subjectId;
+        }
+
+        public String getSubjectName() {
+            return subjectName;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public boolean isPresent() {
+            return present;
+        }
+    }
+
+    // Receives one row of a per-student, per-day attendance rollup
+    interface DailyRollupConsumer {
+        void accept(int studentId, long epochDay, int presentCount, int totalCount);
+    }
+
     void createAttendance(int studentId, int subjectId, LocalDate date, boolean present) throws Exception;
 
     Attendance readAttendance(int studentId, int subjectId, LocalDate date) throws Exception;
@@ -65,4 +126,73 @@ public interface AttendanceDAO {
     void deleteAttendance(int studentId, int subjectId, LocalDate date) throws Exception;
 
     List<Attendance> getAllAttendance() throws Exception;
+
+    // Streams every attendance row to the consumer without buffering the table
+    void forEachAttendance(Consumer<Attendance> consumer, int fetchSize) throws Exception;
+
+    default void forEachAttendance(Consumer<Attendance> consumer) throws Exception {
+        forEachAttendance(consumer, AbstractDAO.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Returns the attendance between from and to (both inclusive) for the given student and
+     * subject, ordered by date. A null argument leaves that side of the filter open.
+     */
+    List<Attendance> findAttendance(LocalDate from, LocalDate to, Integer studentId, Integer subjectId) throws Exception;
+
+    /**
+     * Streams present and total counts grouped by student and day, ordered by student then day,
+     * with the same filters as findAttendance. Days are passed as epoch days so no date objects
+     * are created per row.
+     */
+    void rollupDaily(LocalDate from, LocalDate to, Integer studentId, Integer subjectId,
+                     DailyRollupConsumer consumer) throws Exception;
+
+    /**
+     * Recomputes DailyAttendanceSummary from the Attendance table. Triggers keep the summary
+     * current on every write, so this is only needed after bulk changes made with the
+     * triggers absent, or to repair it.
+     */
+    void rebuildDailySummary() throws Exception;
+
+    /**
+     * Streams every attendance row, joined with student and subject names, to the consumer
+     * straight from the result set without buffering the table in memory.
+     */
+    void forEachAttendanceView(Consumer<AttendanceView> consumer, int fetchSize) throws Exception;
+
+    default void forEachAttendanceView(Consumer<AttendanceView> consumer) throws Exception {
+        forEachAttendanceView(consumer, AbstractDAO.DEFAULT_FETCH_SIZE);
+    }
+
+    int countAttendance() throws Exception;
+
+    /**
+     * Random access in attendance id order: returns up to limit rows starting at the given
+     * zero-based position, e.g. the block of rows a scrolled table needs next.
+     */
+    List<AttendanceView> getAttendanceViewsAt(int offset, int limit) throws Exception;
+
+    // Same as getAttendanceViewsAt in date order, ties broken by attendance id
+    List<AttendanceView> getAttendanceViewsByDateAt(int offset, int limit) throws Exception;
+
+    /**
+     * Returns one page of attendance rows whose student or subject name starts with the term
+     * (case-insensitive), whose student or subject id equals it when it is a whole number,
+     * or whose date falls on it when it is a date (YYYY-MM-DD) or month (YYYY-MM). Every
+     * condition is served by an index. Ordered by date when byDate is set, otherwise in
+     * attendance id order.
+     */
+    List<AttendanceView> searchAttendance(String term, boolean byDate, int limit, int offset) throws Exception;
+
+    /**
+     * Inserts all records in a single transaction. Returns one entry per record, in iteration
+     * order: 1 if it was inserted, 0 if a record for the same student, subject and date already
+     * existed and it was skipped. Nothing is written if any row fails.
+     */
+    int[] createAttendanceBatch(Collection<Attendance> records, int chunkSize) throws Exception;
+
+    default int[] createAttendanceBatch(Collection<Attendance> records) throws Exception {
+        return createAttendanceBatch(records, DEFAULT_BATCH_CHUNK_SIZE);
+    }
 }
\ No newline at end of file
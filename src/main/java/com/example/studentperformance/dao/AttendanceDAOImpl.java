@@ -1,27 +1,77 @@
 package com.example.studentperformance.dao;
 
+import com.example.studentperformance.TransactionManager;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 
 public class AttendanceDAOImpl extends AbstractDAO implements AttendanceDAO {
 
-    public AttendanceDAOImpl(Connection connection) {
-        super(connection);
+    // Keyed statements; QueryPlanCheck verifies they are served by ux_attendance_key
+    static final String READ_SQL =
+            "SELECT student_id, subject_id, date, present FROM Attendance WHERE student_id = ? AND subject_id = ? AND date = ?";
+    static final String UPDATE_SQL =
+            "UPDATE Attendance SET present = ? WHERE student_id = ? AND subject_id = ? AND date = ?";
+    static final String DELETE_SQL =
+            "DELETE FROM Attendance WHERE student_id = ? AND subject_id = ? AND date = ?";
+
+    // Refills an emptied DailyAttendanceSummary from Attendance
+    static final String REBUILD_SUMMARY_SQL =
+            "INSERT INTO DailyAttendanceSummary (student_id, date, subject_id, present_count, total_count) " +
+            "SELECT student_id, date, subject_id, SUM(present), COUNT(*) FROM Attendance " +
+            "GROUP BY student_id, date, subject_id";
+
+    // Attendance joined with student and subject names; LEFT JOIN keeps rows whose student or
+    // subject has gone missing
+    private static final String VIEW_SELECT =
+            "SELECT a.attendance_id, a.student_id, st.name AS student_name, a.subject_id, su.name AS subject_name, " +
+            "a.date, a.present FROM Attendance a " +
+            "LEFT JOIN Students st ON st.student_id = a.student_id " +
+            "LEFT JOIN Subjects su ON su.subject_id = a.subject_id ";
+
+    // Rows from a (date, attendance_id) position on: a range seek on idx_date_attendance, whose
+    // entries are ordered by (date, rowid). The date condition is spelled out rather than written
+    // as a row value, which SQLite cannot seek the index on
+    static final String VIEW_PAGE_BY_DATE_SQL = VIEW_SELECT +
+            "WHERE a.date >= ?1 AND (a.date > ?1 OR a.attendance_id > ?2) ORDER BY a.date, a.attendance_id LIMIT ?3";
+
+    // Blocks at a position: the offset is skipped on the primary key or on the covering
+    // idx_date_attendance alone, then the join starts from a seek, so skipped rows are never joined
+    static final String VIEW_AT_SQL = VIEW_SELECT +
+            "WHERE a.attendance_id >= (SELECT attendance_id FROM Attendance ORDER BY attendance_id LIMIT 1 OFFSET ?) " +
+            "ORDER BY a.attendance_id LIMIT ?";
+    static final String DATE_ANCHOR_SQL =
+            "SELECT date, attendance_id FROM Attendance ORDER BY date, attendance_id LIMIT 1 OFFSET ?";
+
+    private final AttendanceDateCodec dateCodec;
+
+    // Uses the date encoding recorded in the application database
+    public AttendanceDAOImpl() {
+        this(AttendanceDateCodec.current());
+    }
+
+    public AttendanceDAOImpl(AttendanceDateCodec dateCodec) {
+        this.dateCodec = dateCodec;
     }
 
     @Override
     public void createAttendance(int studentId, int subjectId, LocalDate date, boolean present) throws Exception {
         String sql = "INSERT INTO Attendance (student_id, subject_id, date, present) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, studentId);
             pstmt.setInt(2, subjectId);
-            // Store date as string in ISO format (YYYY-MM-DD)
-            pstmt.setString(3, date.toString());
+            dateCodec.bind(pstmt, 3, date);
             pstmt.setBoolean(4, present);
             pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -31,12 +81,11 @@ public class AttendanceDAOImpl extends AbstractDAO implements AttendanceDAO {
 
     @Override
     public AttendanceDAO.Attendance readAttendance(int studentId, int subjectId, LocalDate date) throws Exception {
-        String sql = "SELECT student_id, subject_id, date, present FROM Attendance WHERE student_id = ? AND subject_id = ? AND date = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(READ_SQL)) {
             pstmt.setInt(1, studentId);
             pstmt.setInt(2, subjectId);
-            // Use string representation for the query
-            pstmt.setString(3, date.toString());
+            dateCodec.bind(pstmt, 3, date);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
                     boolean present = rs.getBoolean("present");
@@ -53,13 +102,12 @@ public class AttendanceDAOImpl extends AbstractDAO implements AttendanceDAO {
 
     @Override
     public void updateAttendance(int studentId, int subjectId, LocalDate date, boolean present) throws Exception {
-        String sql = "UPDATE Attendance SET present = ? WHERE student_id = ? AND subject_id = ? AND date = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(UPDATE_SQL)) {
             pstmt.setBoolean(1, present);
             pstmt.setInt(2, studentId);
             pstmt.setInt(3, subjectId);
-            // Use string representation for the query
-            pstmt.setString(4, date.toString());
+            dateCodec.bind(pstmt, 4, date);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new Exception("Error updating attendance: " + e.getMessage(), e);
@@ -68,12 +116,11 @@ public class AttendanceDAOImpl extends AbstractDAO implements AttendanceDAO {
 
     @Override
     public void deleteAttendance(int studentId, int subjectId, LocalDate date) throws Exception {
-        String sql = "DELETE FROM Attendance WHERE student_id = ? AND subject_id = ? AND date = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(DELETE_SQL)) {
             pstmt.setInt(1, studentId);
             pstmt.setInt(2, subjectId);
-            // Use string representation for the query
-            pstmt.setString(3, date.toString());
+            dateCodec.bind(pstmt, 3, date);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new Exception("Error deleting attendance: " + e.getMessage(), e);
@@ -82,22 +129,300 @@ public class AttendanceDAOImpl extends AbstractDAO implements AttendanceDAO {
 
     @Override
     public List<Attendance> getAllAttendance() throws Exception {
+        List<Attendance> attendances = new ArrayList<>();
+        forEachAttendance(attendances::add);
+        return attendances;
+    }
+
+    @Override
+    public void forEachAttendance(Consumer<Attendance> consumer, int fetchSize) throws Exception {
         String sql = "SELECT student_id, subject_id, date, present FROM Attendance";
+        try {
+            forEachRow(sql, fetchSize, rs -> new AttendanceDAO.Attendance(
+                    rs.getInt("student_id"),
+                    rs.getInt("subject_id"),
+                    dateCodec.read(rs, "date"),
+                    rs.getBoolean("present")), consumer);
+        } catch (SQLException e) {
+            throw new Exception("Error getting all attendance: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Attendance> findAttendance(LocalDate from, LocalDate to, Integer studentId, Integer subjectId) throws Exception {
+        List<Object> params = new ArrayList<>();
+        String sql = findAttendanceSql(dateCodec, params, from, to, studentId, subjectId);
+
         List<Attendance> attendances = new ArrayList<>();
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                int studentId = rs.getInt("student_id");
-                int subjectId = rs.getInt("subject_id");
-                // Get date as string and parse to LocalDate
-                String dateStr = rs.getString("date");
-                LocalDate date = LocalDate.parse(dateStr);
-                boolean present = rs.getBoolean("present");
-                attendances.add(new AttendanceDAO.Attendance(studentId, subjectId, date, present));
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    attendances.add(new AttendanceDAO.Attendance(
+                            rs.getInt("student_id"),
+                            rs.getInt("subject_id"),
+                            dateCodec.read(rs, "date"),
+                            rs.getBoolean("present")));
+                }
             }
         } catch (SQLException e) {
-            throw new Exception("Error getting all attendance: " + e.getMessage(), e);
+            throw new Exception("Error finding attendance: " + e.getMessage(), e);
         }
         return attendances;
     }
-}
\ No newline at end of file
+
+    static String findAttendanceSql(AttendanceDateCodec dateCodec, List<Object> params, LocalDate from, LocalDate to,
+                                    Integer studentId, Integer subjectId) {
+        StringBuilder sql = new StringBuilder("SELECT student_id, subject_id, date, present FROM Attendance");
+        appendFilters(sql, dateCodec, params, from, to, studentId, subjectId);
+        sql.append(" ORDER BY date");
+        return sql.toString();
+    }
+
+    @Override
+    public void rollupDaily(LocalDate from, LocalDate to, Integer studentId, Integer subjectId,
+                            DailyRollupConsumer consumer) throws Exception {
+        List<Object> params = new ArrayList<>();
+        String sql = rollupDailySql(dateCodec, params, from, to, studentId, subjectId);
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getInt(1), rs.getLong(2), rs.getInt(3), rs.getInt(4));
+                }
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error getting daily attendance rollup: " + e.getMessage(), e);
+        }
+    }
+
+    static String rollupDailySql(AttendanceDateCodec dateCodec, List<Object> params, LocalDate from, LocalDate to,
+                                 Integer studentId, Integer subjectId) {
+        // Reads the trigger-maintained summary, clustered by (student_id, date), instead of raw
+        // Attendance rows; the day number is computed in SQL, or read as is for epoch-day storage
+        StringBuilder sql = new StringBuilder(
+                "SELECT student_id, " + dateCodec.epochDaySql("date") + " AS epoch_day, " +
+                "SUM(present_count) AS present_count, SUM(total_count) AS total_count FROM DailyAttendanceSummary");
+        appendFilters(sql, dateCodec, params, from, to, studentId, subjectId);
+        sql.append(" GROUP BY student_id, date ORDER BY student_id, date");
+        return sql.toString();
+    }
+
+    @Override
+    public void rebuildDailySummary() throws Exception {
+        try {
+            TransactionManager.inTransaction(() -> {
+                try (Connection connection = openConnection();
+                     Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("DELETE FROM DailyAttendanceSummary");
+                    stmt.executeUpdate(REBUILD_SUMMARY_SQL);
+                }
+            });
+        } catch (SQLException e) {
+            throw new Exception("Error rebuilding daily attendance summary: " + e.getMessage(), e);
+        }
+    }
+
+    // Only the filters that are set go into the WHERE clause, so SQLite can pick the
+    // (student_id, date), (subject_id, date) or (date) index that matches them
+    private static void appendFilters(StringBuilder sql, AttendanceDateCodec dateCodec, List<Object> params,
+                                      LocalDate from, LocalDate to, Integer studentId, Integer subjectId) {
+        sql.append(" WHERE 1 = 1");
+        if (studentId != null) {
+            sql.append(" AND student_id = ?");
+            params.add(studentId);
+        }
+        if (subjectId != null) {
+            sql.append(" AND subject_id = ?");
+            params.add(subjectId);
+        }
+        // Both date encodings sort in date order
+        if (from != null) {
+            sql.append(" AND date >= ?");
+            params.add(dateCodec.encode(from));
+        }
+        if (to != null) {
+            sql.append(" AND date <= ?");
+            params.add(dateCodec.encode(to));
+        }
+    }
+
+    @Override
+    public void forEachAttendanceView(Consumer<AttendanceView> consumer, int fetchSize) throws Exception {
+        String sql = VIEW_SELECT + "ORDER BY a.attendance_id";
+        try {
+            forEachRow(sql, fetchSize, this::readAttendanceView, consumer);
+        } catch (SQLException e) {
+            throw new Exception("Error streaming attendance: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int countAttendance() throws Exception {
+        try {
+            return queryList("SELECT COUNT(*) FROM Attendance", rs -> rs.getInt(1)).get(0);
+        } catch (SQLException e) {
+            throw new Exception("Error counting attendance: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<AttendanceView> getAttendanceViewsAt(int offset, int limit) throws Exception {
+        try {
+            return queryList(VIEW_AT_SQL, this::readAttendanceView, offset, limit);
+        } catch (SQLException e) {
+            throw new Exception("Error getting attendance block: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<AttendanceView> getAttendanceViewsByDateAt(int offset, int limit) throws Exception {
+        List<AttendanceView> views = new ArrayList<>();
+        try (Connection connection = openConnection()) {
+            // Find the first row of the block, then read the block from it; the seek includes
+            // the anchor row itself
+            Object anchorDate;
+            int anchorId;
+            try (PreparedStatement pstmt = connection.prepareStatement(DATE_ANCHOR_SQL)) {
+                pstmt.setInt(1, offset);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return views;
+                    }
+                    anchorDate = rs.getObject("date");
+                    anchorId = rs.getInt("attendance_id");
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(VIEW_PAGE_BY_DATE_SQL)) {
+                pstmt.setObject(1, anchorDate);
+                pstmt.setInt(2, anchorId - 1);
+                pstmt.setInt(3, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        views.add(readAttendanceView(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error getting attendance block: " + e.getMessage(), e);
+        }
+        return views;
+    }
+
+    @Override
+    public List<AttendanceView> searchAttendance(String term, boolean byDate, int limit, int offset) throws Exception {
+        String trimmed = term.trim();
+        String prefix = escapeLike(trimmed) + "%";
+        List<Object> params = new ArrayList<>();
+        params.add(prefix);
+        params.add(prefix);
+
+        Long id = parseId(trimmed);
+        if (id != null) {
+            params.add(id);
+            params.add(id);
+        }
+        LocalDate[] days = parseDays(trimmed);
+        if (days != null) {
+            params.add(dateCodec.encode(days[0]));
+            params.add(dateCodec.encode(days[1]));
+        }
+        params.add(limit);
+        params.add(offset);
+
+        try {
+            return queryList(searchAttendanceSql(id != null, days != null, byDate), this::readAttendanceView,
+                    params.toArray());
+        } catch (SQLException e) {
+            throw new Exception("Error searching attendance: " + e.getMessage(), e);
+        }
+    }
+
+    // The search with only the conditions the term can match; parameters: prefix twice, then the
+    // id twice, then the first and last day, then limit and offset
+    static String searchAttendanceSql(boolean byId, boolean byDays, boolean byDate) {
+        // Name matches resolve through the NOCASE name indexes
+        StringBuilder sql = new StringBuilder(VIEW_SELECT +
+                "WHERE a.student_id IN (SELECT student_id FROM Students WHERE name LIKE ? ESCAPE '\\') " +
+                "OR a.subject_id IN (SELECT subject_id FROM Subjects WHERE name LIKE ? ESCAPE '\\') ");
+        if (byId) {
+            sql.append("OR a.student_id = ? OR a.subject_id = ? ");
+        }
+        if (byDays) {
+            sql.append("OR a.date BETWEEN ? AND ? ");
+        }
+        sql.append(byDate ? "ORDER BY a.date, a.attendance_id " : "ORDER BY a.attendance_id ");
+        sql.append("LIMIT ? OFFSET ?");
+        return sql.toString();
+    }
+
+    // First and last day the term names: one day for YYYY-MM-DD, a whole month for YYYY-MM
+    private static LocalDate[] parseDays(String term) {
+        try {
+            LocalDate day = LocalDate.parse(term);
+            return new LocalDate[]{day, day};
+        } catch (DateTimeParseException e) {
+            // Not a single day; try a month
+        }
+        try {
+            YearMonth month = YearMonth.parse(term);
+            return new LocalDate[]{month.atDay(1), month.atEndOfMonth()};
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private AttendanceView readAttendanceView(ResultSet rs) throws SQLException {
+        return new AttendanceView(
+                rs.getInt("attendance_id"),
+                rs.getInt("student_id"),
+                rs.getString("student_name"),
+                rs.getInt("subject_id"),
+                rs.getString("subject_name"),
+                dateCodec.read(rs, "date"),
+                rs.getBoolean("present"));
+    }
+
+    @Override
+    public int[] createAttendanceBatch(Collection<Attendance> records, int chunkSize) throws Exception {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        // The unique key makes rows that already exist come back with an update count of 0
+        String sql = "INSERT OR IGNORE INTO Attendance (student_id, subject_id, date, present) VALUES (?, ?, ?, ?)";
+        int[] results = new int[records.size()];
+        try {
+            // Joins the caller's unit of work if there is one
+            TransactionManager.inTransaction(() -> {
+                try (Connection connection = openConnection();
+                     PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    int index = 0;
+                    int pending = 0;
+                    for (Attendance record : records) {
+                        pstmt.setInt(1, record.getStudentId());
+                        pstmt.setInt(2, record.getSubjectId());
+                        dateCodec.bind(pstmt, 3, record.getDate());
+                        pstmt.setBoolean(4, record.isPresent());
+                        pstmt.addBatch();
+                        if (++pending == chunkSize) {
+                            index = copyCounts(pstmt.executeBatch(), results, index);
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        copyCounts(pstmt.executeBatch(), results, index);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw new Exception("Error creating attendance batch: " + e.getMessage(), e);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.studentperformance.dao;
+
+import com.example.studentperformance.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * How attendance dates are stored in Attendance.date and DailyAttendanceSummary.date.
+ * <p>
+ * {@link #ISO_TEXT} keeps the original {@code YYYY-MM-DD} strings. {@link #EPOCH_DAY} stores
+ * days since 1970-01-01 as an INTEGER: a few bytes per index entry instead of ten, integer
+ * comparisons in range scans, and rows decode with {@link LocalDate#ofEpochDay} instead of
+ * string parsing. Both sort in date order, so every query and index works unchanged.
+ * <p>
+ * The active encoding is recorded in {@code schema_settings}. {@link #convert} switches an
+ * existing database in one transaction.
+ */
+public enum AttendanceDateCodec {
+
+    ISO_TEXT("iso_text", "text") {
+        @Override
+        public Object encode(LocalDate date) {
+            return date.toString();
+        }
+
+        @Override
+        public LocalDate read(ResultSet rs, String column) throws SQLException {
+            return LocalDate.parse(rs.getString(column));
+        }
+
+        @Override
+        public String epochDaySql(String column) {
+            return "CAST(julianday(" + column + ") - 2440587.5 AS INTEGER)";
+        }
+
+        @Override
+        String fromOtherSql(String column) {
+            return "date(" + column + " * 86400, 'unixepoch')";
+        }
+    },
+
+    EPOCH_DAY("epoch_day", "integer") {
+        @Override
+        public Object encode(LocalDate date) {
+            return date.toEpochDay();
+        }
+
+        @Override
+        public LocalDate read(ResultSet rs, String column) throws SQLException {
+            return LocalDate.ofEpochDay(rs.getLong(column));
+        }
+
+        @Override
+        public String epochDaySql(String column) {
+            return column;
+        }
+
+        @Override
+        String fromOtherSql(String column) {
+            return ISO_TEXT.epochDaySql(column);
+        }
+    };
+
+    private static final String SETTING = "attendance_date_encoding";
+
+    private static volatile AttendanceDateCodec current;
+
+    private final String settingValue;
+    private final String storageType;
+
+    AttendanceDateCodec(String settingValue, String storageType) {
+        this.settingValue = settingValue;
+        this.storageType = storageType;
+    }
+
+    // The value to bind for a date parameter
+    public abstract Object encode(LocalDate date);
+
+    public abstract LocalDate read(ResultSet rs, String column) throws SQLException;
+
+    // SQL expression giving the column's value as days since 1970-01-01
+    public abstract String epochDaySql(String column);
+
+    // SQL expression converting a column stored in the other encoding into this one
+    abstract String fromOtherSql(String column);
+
+    public void bind(PreparedStatement pstmt, int index, LocalDate date) throws SQLException {
+        pstmt.setObject(index, encode(date));
+    }
+
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    public static AttendanceDateCodec fromSettingValue(String value) {
+        for (AttendanceDateCodec codec : values()) {
+            if (codec.settingValue.equalsIgnoreCase(value)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown attendance date encoding: " + value);
+    }
+
+    // The encoding of the application database, read once and then cached
+    public static AttendanceDateCodec current() {
+        AttendanceDateCodec codec = current;
+        if (codec == null) {
+            try (Connection connection = DatabaseConnection.getConnection()) {
+                codec = detect(connection);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to read attendance date encoding", e);
+            }
+            current = codec;
+        }
+        return codec;
+    }
+
+    // Databases without the setting predate it and still hold ISO text
+    public static AttendanceDateCodec detect(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'schema_settings'")) {
+                if (!rs.next()) {
+                    return ISO_TEXT;
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT value FROM schema_settings WHERE name = '" + SETTING + "'")) {
+                return rs.next() ? fromSettingValue(rs.getString("value")) : ISO_TEXT;
+            }
+        }
+    }
+
+    /**
+     * Rewrites every stored attendance date into the target encoding, in one transaction.
+     * The Attendance indexes and triggers are dropped for the duration and recreated
+     * afterwards, and the summary table is rebuilt, so every b-tree is built once from sorted
+     * input at the new, smaller key size rather than updated row by row. Returns false if the
+     * database already uses the target encoding.
+     */
+    public static boolean convert(Connection connection, AttendanceDateCodec target) throws SQLException {
+        if (detect(connection) == target) {
+            current = target;
+            return false;
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("BEGIN IMMEDIATE");
+            try {
+                // Indexes before triggers, so they are recreated in the same order
+                Map<String, String> dependents = new LinkedHashMap<>();
+                try (ResultSet rs = stmt.executeQuery("SELECT type, name, sql FROM sqlite_master " +
+                        "WHERE tbl_name = 'Attendance' AND type IN ('index', 'trigger') AND sql IS NOT NULL " +
+                        "ORDER BY type")) {
+                    while (rs.next()) {
+                        dependents.put(rs.getString("type") + " " + rs.getString("name"), rs.getString("sql"));
+                    }
+                }
+                for (String dependent : dependents.keySet()) {
+                    stmt.execute("DROP " + dependent);
+                }
+                stmt.executeUpdate("UPDATE Attendance SET date = " + target.fromOtherSql("date")
+                        + " WHERE typeof(date) <> '" + target.storageType + "'");
+                stmt.executeUpdate("DELETE FROM DailyAttendanceSummary");
+                stmt.executeUpdate(AttendanceDAOImpl.REBUILD_SUMMARY_SQL);
+                for (String sql : dependents.values()) {
+                    stmt.execute(sql);
+                }
+                stmt.executeUpdate("INSERT INTO schema_settings (name, value) VALUES ('" + SETTING + "', '"
+                        + target.settingValue + "') ON CONFLICT (name) DO UPDATE SET value = excluded.value");
+                stmt.execute("COMMIT");
+            } catch (SQLException e) {
+                stmt.execute("ROLLBACK");
+                throw e;
+            }
+        }
+        current = target;
+        return true;
+    }
+}
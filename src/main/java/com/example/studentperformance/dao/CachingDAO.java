@@ -0,0 +1,94 @@
+package com.example.studentperformance.dao;
+
+import com.example.studentperformance.TransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Read-through cache in front of another DAO: the part the caching decorators share, leaving
+ * each subclass only the delegation for its own entity type. Single reads and the full table
+ * are served from an {@link EntityCache}; every write goes to the delegate and then drops
+ * what it may have changed.
+ * <p>
+ * Inside a unit of work the cache is bypassed, since the rows read there may still be rolled
+ * back, and entries a write touched are dropped again once the transaction has ended.
+ * <p>
+ * Callers get copies, so changing a returned entity never changes the cache. The cache only
+ * sees writes made through this instance.
+ *
+ * @param <D> the DAO interface being decorated
+ * @param <V> the entity type
+ */
+public abstract class CachingDAO<D, V> {
+
+    protected final D delegate;
+    private final EntityCache<V> cache;
+
+    protected CachingDAO(D delegate, EntityCache<V> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    // A copy callers may change without changing the cached entity
+    protected abstract V copy(V value);
+
+    protected V read(int id, Callable<V> loader) throws Exception {
+        if (TransactionManager.isActive()) {
+            return loader.call();
+        }
+        V cached = cache.get(id, loader);
+        return cached == null ? null : copy(cached);
+    }
+
+    protected List<V> readAll(Callable<List<V>> loader, EntityCache.IdOf<V> idOf) throws Exception {
+        if (TransactionManager.isActive()) {
+            return loader.call();
+        }
+        List<V> cached = cache.getAll(loader, idOf);
+        List<V> values = new ArrayList<>(cached.size());
+        for (V value : cached) {
+            values.add(copy(value));
+        }
+        return values;
+    }
+
+    // A write that changes one entity
+    protected void write(int id, TransactionManager.Action write) throws Exception {
+        try {
+            write.execute();
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    // A write that adds rows, so the cached full table is stale as well
+    protected void writeAll(TransactionManager.Action write) throws Exception {
+        try {
+            write.execute();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    // For writes made behind the DAO's back, e.g. a bulk import
+    public void invalidateAll() {
+        cache.invalidateAll();
+        if (TransactionManager.isActive()) {
+            TransactionManager.afterCompletion(cache::invalidateAll);
+        }
+    }
+
+    // Reads that raced the write could cache a row the open transaction is about to change
+    private void invalidate(int id) {
+        cache.invalidate(id);
+        if (TransactionManager.isActive()) {
+            TransactionManager.afterCompletion(() -> cache.invalidate(id));
+        }
+    }
+
+    public EntityCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.studentperformance.dao;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of another StudentDAO; see {@link CachingDAO}. Single reads and
+ * getAllStudents are cached. Pages, searches and streams always read the database, since they
+ * are meant for tables too large to cache. Share one instance via
+ * {@link DAOFactory#studentDAO()}, since the cache only sees writes made through it.
+ */
+public class CachingStudentDAO extends CachingDAO<StudentDAO, StudentDAO.Student> implements StudentDAO {
+
+    public CachingStudentDAO(StudentDAO delegate) {
+        this(delegate, new EntityCache<>());
+    }
+
+    public CachingStudentDAO(StudentDAO delegate, EntityCache<Student> cache) {
+        super(delegate, cache);
+    }
+
+    @Override
+    public void createStudent(String name) throws Exception {
+        writeAll(() -> delegate.createStudent(name));
+    }
+
+    @Override
+    public void createStudent(int studentId, String name) throws Exception {
+        writeAll(() -> delegate.createStudent(studentId, name));
+    }
+
+    @Override
+    public Student readStudent(int studentId) throws Exception {
+        return read(studentId, () -> delegate.readStudent(studentId));
+    }
+
+    @Override
+    public void updateStudent(int studentId, String newName) throws Exception {
+        write(studentId, () -> delegate.updateStudent(studentId, newName));
+    }
+
+    @Override
+    public void deleteStudent(int studentId) throws Exception {
+        write(studentId, () -> delegate.deleteStudent(studentId));
+    }
+
+    @Override
+    public List<Student> getAllStudents() throws Exception {
+        return readAll(delegate::getAllStudents, Student::getStudentId);
+    }
+
+    @Override
+    public void forEachStudent(Consumer<Student> consumer, int fetchSize) throws Exception {
+        delegate.forEachStudent(consumer, fetchSize);
+    }
+
+    @Override
+    public List<Student> getStudentsPage(Integer afterStudentId, int limit) throws Exception {
+        return delegate.getStudentsPage(afterStudentId, limit);
+    }
+
+    @Override
+    public List<Student> getStudentsPageByName(String afterName, int afterStudentId, int limit) throws Exception {
+        return delegate.getStudentsPageByName(afterName, afterStudentId, limit);
+    }
+
+    @Override
+    public List<Student> searchStudents(String term, boolean byName, int limit, int offset) throws Exception {
+        return delegate.searchStudents(term, byName, limit, offset);
+    }
+
+    @Override
+    protected Student copy(Student student) {
+        return new Student(student.getStudentId(), student.getName());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.studentperformance.dao;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of another SubjectDAO; see {@link CachingDAO}. Single reads and
+ * getAllSubjects are cached. Pages, searches and streams always read the database, since they
+ * are meant for tables too large to cache. Share one instance via
+ * {@link DAOFactory#subjectDAO()}, since the cache only sees writes made through it.
+ */
+public class CachingSubjectDAO extends CachingDAO<SubjectDAO, SubjectDAO.Subject> implements SubjectDAO {
+
+    public CachingSubjectDAO(SubjectDAO delegate) {
+        this(delegate, new EntityCache<>());
+    }
+
+    public CachingSubjectDAO(SubjectDAO delegate, EntityCache<Subject> cache) {
+        super(delegate, cache);
+    }
+
+    @Override
+    public void createSubject(String name) throws Exception {
+        writeAll(() -> delegate.createSubject(name));
+    }
+
+    @Override
+    public void createSubject(int subjectId, String name) throws Exception {
+        writeAll(() -> delegate.createSubject(subjectId, name));
+    }
+
+    @Override
+    public Subject readSubject(int subjectId) throws Exception {
+        return read(subjectId, () -> delegate.readSubject(subjectId));
+    }
+
+    @Override
+    public void updateSubject(int subjectId, String newName) throws Exception {
+        write(subjectId, () -> delegate.updateSubject(subjectId, newName));
+    }
+
+    @Override
+    public void deleteSubject(int subjectId) throws Exception {
+        write(subjectId, () -> delegate.deleteSubject(subjectId));
+    }
+
+    @Override
+    public List<Subject> getAllSubjects() throws Exception {
+        return readAll(delegate::getAllSubjects, Subject::getSubjectId);
+    }
+
+    @Override
+    public void forEachSubject(Consumer<Subject> consumer, int fetchSize) throws Exception {
+        delegate.forEachSubject(consumer, fetchSize);
+    }
+
+    @Override
+    public List<Subject> getSubjectsPage(Integer afterSubjectId, int limit) throws Exception {
+        return delegate.getSubjectsPage(afterSubjectId, limit);
+    }
+
+    @Override
+    public List<Subject> getSubjectsPageByName(String afterName, int afterSubjectId, int limit) throws Exception {
+        return delegate.getSubjectsPageByName(afterName, afterSubjectId, limit);
+    }
+
+    @Override
+    public List<Subject> searchSubjects(String term, boolean byName, int limit, int offset) throws Exception {
+        return delegate.searchSubjects(term, byName, limit, offset);
+    }
+
+    @Override
+    protected Subject copy(Subject subject) {
+        return new Subject(subject.getSubjectId(), subject.getName());
+    }
+}
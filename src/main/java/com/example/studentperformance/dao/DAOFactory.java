@@ -0,0 +1,23 @@
+package com.example.studentperformance.dao;
+
+/**
+ * Shared DAO instances. Student and subject reads go through one cache per table, so a write
+ * made in one window is seen by every other; creating a separate StudentDAOImpl or
+ * SubjectDAOImpl would bypass it.
+ */
+public final class DAOFactory {
+
+    private static final CachingStudentDAO STUDENT_DAO = new CachingStudentDAO(new StudentDAOImpl());
+    private static final CachingSubjectDAO SUBJECT_DAO = new CachingSubjectDAO(new SubjectDAOImpl());
+
+    private DAOFactory() {
+    }
+
+    public static CachingStudentDAO studentDAO() {
+        return STUDENT_DAO;
+    }
+
+    public static CachingSubjectDAO subjectDAO() {
+        return SUBJECT_DAO;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.studentperformance.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Bounded id-to-entity cache for the caching DAO decorators, plus one slot for the full
+ * table as getAll* returns it. Entries are evicted least recently used first.
+ * <p>
+ * A write bumps a version number along with dropping entries, and a value read from the
+ * database is only stored if no write happened while it was being read, so a slow read can
+ * never put back a row that was just updated or deleted. Safe to use from several threads.
+ *
+ * @param <V> the entity type; stored values must not be handed out for callers to modify
+ */
+public class EntityCache<V> {
+
+    // Entities kept per cache, overridable with -Ddao.cacheSize
+    public static final int DEFAULT_MAX_ENTRIES = Integer.getInteger("dao.cacheSize", 1000);
+
+    // Maps an entity to its id
+    public interface IdOf<V> {
+        int get(V value);
+    }
+
+    // Counters at one point in time
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int size;
+
+        Stats(long hits, long misses, long evictions, long invalidations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        // Share of lookups served from memory, 0 before the first lookup
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.1f%% evictions=%d invalidations=%d size=%d",
+                    hits, misses, getHitRate() * 100, evictions, invalidations, size);
+        }
+    }
+
+    private final int maxEntries;
+    private final Map<Integer, V> entries;
+    private List<V> all;
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public EntityCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public EntityCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        // Access order, so the eldest entry is the least recently read
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, V> eldest) {
+                if (size() > EntityCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached entity, or reads it with the loader and caches it. A null result,
+     * i.e. no such row, is not cached.
+     */
+    public V get(int id, Callable<V> loader) throws Exception {
+        long readVersion;
+        synchronized (this) {
+            V cached = entries.get(id);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            readVersion = version;
+        }
+        // Read outside the lock so a slow query does not hold up other lookups
+        V loaded = loader.call();
+        if (loaded != null) {
+            synchronized (this) {
+                if (readVersion == version) {
+                    entries.put(id, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the cached full table, or reads it with the loader. The rows read also fill the
+     * id cache, so single lookups after a getAll* are hits. A table larger than the cache
+     * size is returned but not kept.
+     */
+    public List<V> getAll(Callable<List<V>> loader, IdOf<V> idOf) throws Exception {
+        long readVersion;
+        synchronized (this) {
+            if (all != null) {
+                hits++;
+                return all;
+            }
+            misses++;
+            readVersion = version;
+        }
+        List<V> loaded = Collections.unmodifiableList(new ArrayList<>(loader.call()));
+        synchronized (this) {
+            if (readVersion == version && loaded.size() <= maxEntries) {
+                all = loaded;
+                for (V value : loaded) {
+                    entries.put(idOf.get(value), value);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // After an update or delete of one row; the full table is dropped too
+    public synchronized void invalidate(int id) {
+        version++;
+        invalidations++;
+        entries.remove(id);
+        all = null;
+    }
+
+    // After an insert, or a write the caller cannot pin to single rows
+    public synchronized void invalidateAll() {
+        version++;
+        invalidations++;
+        entries.clear();
+        all = null;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, invalidations, entries.size());
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.studentperformance.dao;
 
-import java.sql.Connection;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface GradeDAO {
+
+    // Rows sent to the driver per executeBatch call when no chunk size is given
+    int DEFAULT_BATCH_CHUNK_SIZE = 500;
+
     class Grade {
         private Integer studentId;
         private Integer subjectId;
@@ -39,12 +44,201 @@ public interface GradeDAO {
             this.grade = grade;
         }
     }
-    
-    Connection getConnection();
+
+    // A grade row already joined with the student and subject names, for display
+    class GradeView {
+        private final int gradeId;
+        private final int studentId;
+        private final String studentName;
+        private final int subjectId;
+        private final String subjectName;
+        private final double grade;
+
+        public GradeView(int gradeId, int studentId, String studentName, int subjectId, String subjectName,
+                         double grade) {
+            this.gradeId = gradeId;
+            this.studentId = studentId;
+            this.studentName = studentName;
+            this.subjectId = subjectId;
+            this.subjectName = subjectName;
+            this.grade = grade;
+        }
+
+        public int getGradeId() {
+            return gradeId;
+        }
+
+        public int getStudentId() {
+            return studentId;
+        }
+
+        public String getStudentName() {
+            return studentName;
+        }
+
+        public int getSubjectId() {
+            return subjectId;
+        }
+
+        public String getSubjectName() {
+            return subjectName;
+        }
+
+        public double getGrade() {
+            return grade;
+        }
+    }
+
+    // Aggregate grade figures for one subject, computed by the database
+    class SubjectAverage {
+        private final int subjectId;
+        private final String subjectName;
+        private final int count;
+        private final double average;
+        private final double min;
+        private final double max;
+
+        public SubjectAverage(int subjectId, String subjectName, int count, double average, double min, double max) {
+            this.subjectId = subjectId;
+            this.subjectName = subjectName;
+            this.count = count;
+            this.average = average;
+            this.min = min;
+            this.max = max;
+        }
+
+        public int getSubjectId() {
+            return subjectId;
+        }
+
+        public String getSubjectName() {
+            return subjectName;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getAverage() {
+            return average;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+    }
+
+    // Nearest-rank percentiles of one subject's grades
+    class Percentiles {
+        private final int count;
+        private final double p25;
+        private final double median;
+        private final double p75;
+        private final double p90;
+
+        public Percentiles(int count, double p25, double median, double p75, double p90) {
+            this.count = count;
+            this.p25 = p25;
+            this.median = median;
+            this.p75 = p75;
+            this.p90 = p90;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getP25() {
+            return p25;
+        }
+
+        public double getMedian() {
+            return median;
+        }
+
+        public double getP75() {
+            return p75;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+    }
+
+    // Receives one grade as primitives, so streaming the table allocates nothing per row
+    interface GradeValueConsumer {
+        void accept(int studentId, int subjectId, double grade);
+    }
 
     void createGrade(int studentId, int subjectId, double grade) throws Exception;
     Grade readGrade(int studentId,int subjectId) throws Exception;
     void updateGrade(int studentId, int subjectId, double newGrade) throws Exception;
     void deleteGrade(int studentId,int subjectId) throws Exception;
     List<Grade> getAllGrades() throws Exception;
+
+    // Streams every grade to the consumer without buffering the table
+    void forEachGrade(Consumer<Grade> consumer, int fetchSize) throws Exception;
+
+    default void forEachGrade(Consumer<Grade> consumer) throws Exception {
+        forEachGrade(consumer, AbstractDAO.DEFAULT_FETCH_SIZE);
+    }
+
+    // Streams every grade as unboxed values, for analytics that keep columns instead of objects
+    void forEachGradeValue(GradeValueConsumer consumer, int fetchSize) throws Exception;
+
+    default void forEachGradeValue(GradeValueConsumer consumer) throws Exception {
+        forEachGradeValue(consumer, AbstractDAO.DEFAULT_FETCH_SIZE);
+    }
+
+    // Streams every grade with its student and subject names, in grade id order
+    void forEachGradeView(Consumer<GradeView> consumer, int fetchSize) throws Exception;
+
+    default void forEachGradeView(Consumer<GradeView> consumer) throws Exception {
+        forEachGradeView(consumer, AbstractDAO.DEFAULT_FETCH_SIZE);
+    }
+
+    int countGrades() throws Exception;
+
+    /**
+     * Random access in grade id order: returns up to limit grades starting at the given
+     * zero-based position, e.g. the block of rows a scrolled table needs next.
+     */
+    List<GradeView> getGradeViewsAt(int offset, int limit) throws Exception;
+
+    /**
+     * Returns one page of grades whose student or subject name starts with the term
+     * (case-insensitive), whose student or subject id equals it when the term is a whole
+     * number, or whose value equals it when the term is numeric.
+     */
+    List<GradeView> searchGrades(String term, int limit, int offset) throws Exception;
+
+    // One row per subject that has grades, ordered by subject id
+    List<SubjectAverage> averageBySubject() throws Exception;
+
+    /**
+     * Counts grades per bucket. With ascending edges e0..en-1, bucket 0 holds grades below e0,
+     * bucket i grades in [ei-1, ei) and the last bucket grades of at least en-1.
+     */
+    int[] histogram(double[] bucketEdges) throws Exception;
+
+    // Same as histogram(double[]) restricted to one subject
+    int[] histogram(int subjectId, double[] bucketEdges) throws Exception;
+
+    // Returns null when the subject has no grades
+    Percentiles percentiles(int subjectId) throws Exception;
+
+    /**
+     * Inserts all grades in a single transaction. Returns one entry per grade, in iteration
+     * order: 1 if it was inserted, 0 if the student already had a grade in the subject and it
+     * was skipped. Nothing is written if any row fails.
+     */
+    int[] createGradeBatch(Collection<Grade> grades, int chunkSize) throws Exception;
+
+    default int[] createGradeBatch(Collection<Grade> grades) throws Exception {
+        return createGradeBatch(grades, DEFAULT_BATCH_CHUNK_SIZE);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.example.studentperformance.dao;
 
+import com.example.studentperformance.TransactionManager;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.sql.SQLException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -11,14 +15,41 @@ import com.example.studentperformance.dao.StudentDAO.Student;
 
 public class GradeDAOImpl extends AbstractDAO implements GradeDAO{
 
-    public GradeDAOImpl(Connection connection) {
-        super(connection);
-    }
+    // Keyed statements; QueryPlanCheck verifies they are served by ux_grades_key
+    static final String READ_SQL = "SELECT student_id,subject_id,grade_value FROM Grades WHERE student_id = ? and subject_id = ?";
+    static final String UPDATE_SQL = "UPDATE Grades SET grade_value = ? WHERE student_id=? and subject_id = ?";
+    static final String DELETE_SQL = "DELETE FROM Grades WHERE student_id = ? and subject_id = ?";
+
+    // Grades joined with student and subject names; readGradeView maps its rows
+    private static final String VIEW_SELECT =
+            "SELECT g.grade_id, g.student_id, st.name AS student_name, g.subject_id, su.name AS subject_name, " +
+            "g.grade_value FROM Grades g " +
+            "JOIN Students st ON st.student_id = g.student_id " +
+            "JOIN Subjects su ON su.subject_id = g.subject_id ";
+
+    // Nearest rank: the smallest grade whose rank reaches p * n; the (subject_id, grade_value)
+    // index supplies the rows already sorted
+    static final String PERCENTILES_SQL = "WITH ranked AS (" +
+            "SELECT grade_value, ROW_NUMBER() OVER (ORDER BY grade_value) AS rn, COUNT(*) OVER () AS n " +
+            "FROM Grades WHERE subject_id = ?) " +
+            "SELECT MAX(n) AS grade_count, " +
+            "MIN(CASE WHEN rn * 4 >= n THEN grade_value END) AS p25, " +
+            "MIN(CASE WHEN rn * 2 >= n THEN grade_value END) AS p50, " +
+            "MIN(CASE WHEN rn * 4 >= n * 3 THEN grade_value END) AS p75, " +
+            "MIN(CASE WHEN rn * 10 >= n * 9 THEN grade_value END) AS p90 " +
+            "FROM ranked";
+
+    // Block at a position: the offset is skipped on the primary key alone, then the join
+    // starts from a seek, so rows before the block are never joined
+    static final String VIEW_AT_SQL = VIEW_SELECT +
+            "WHERE g.grade_id >= (SELECT grade_id FROM Grades ORDER BY grade_id LIMIT 1 OFFSET ?) " +
+            "ORDER BY g.grade_id LIMIT ?";
 
     @Override
     public void createGrade(int studentId, int subjectId, double gradeValue) throws Exception {
         String sql = "INSERT INTO Grades (student_id,subject_id,grade_value) VALUES (?,?,?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, studentId);
             pstmt.setInt(2, subjectId);
             pstmt.setDouble(3, gradeValue);
@@ -30,8 +61,8 @@ public class GradeDAOImpl extends AbstractDAO implements GradeDAO{
 
     @Override
     public GradeDAO.Grade readGrade(int studentId, int subjectId) throws Exception {
-        String sql = "SELECT student_id,subject_id,grade_value FROM Grades WHERE student_id = ? and subject_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(READ_SQL)) {
             pstmt.setInt(1, studentId);
             pstmt.setInt(2, subjectId);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -50,8 +81,8 @@ public class GradeDAOImpl extends AbstractDAO implements GradeDAO{
 
     @Override
     public void updateGrade(int studentId, int subjectId, double newGradeValue) throws Exception {
-        String sql = "UPDATE Grades SET grade_value = ? WHERE student_id=? and subject_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(UPDATE_SQL)) {
             pstmt.setDouble(1, newGradeValue);
             pstmt.setInt(2, studentId);pstmt.setInt(3, subjectId);
             pstmt.executeUpdate();
@@ -62,8 +93,8 @@ public class GradeDAOImpl extends AbstractDAO implements GradeDAO{
 
     @Override
     public void deleteGrade(int studentId, int subjectId) throws Exception {
-        String sql = "DELETE FROM Grades WHERE student_id = ? and subject_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(DELETE_SQL)) {
            pstmt.setInt(1, studentId);
             pstmt.setInt(2, subjectId);pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -74,28 +105,244 @@ public class GradeDAOImpl extends AbstractDAO implements GradeDAO{
     @Override
     public List<GradeDAO.Grade> getAllGrades() throws Exception {
         List<GradeDAO.Grade> grades = new ArrayList<>();
+        forEachGrade(grades::add);
+        return grades;
+    }
+
+    @Override
+    public void forEachGrade(Consumer<GradeDAO.Grade> consumer, int fetchSize) throws Exception {
         String sql = "SELECT grade_id,student_id, subject_id, grade_value FROM Grades";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+        try {
+            forEachRow(sql, fetchSize, rs -> new GradeDAO.Grade(
+                    rs.getInt("student_id"), rs.getInt("subject_id"), rs.getDouble("grade_value")), consumer);
+        } catch (SQLException e) {
+            throw new Exception("Error getting all grades: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void forEachGradeValue(GradeDAO.GradeValueConsumer consumer, int fetchSize) throws Exception {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be at least 1");
+        }
+        // Read by column index straight into the consumer; no Grade or wrapper is created per row
+        String sql = "SELECT student_id, subject_id, grade_value FROM Grades";
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                     ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(fetchSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getInt(1), rs.getInt(2), rs.getDouble(3));
+                }
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error getting all grades: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void forEachGradeView(Consumer<GradeDAO.GradeView> consumer, int fetchSize) throws Exception {
+        // Names are resolved by the join instead of one lookup per row
+        String sql = VIEW_SELECT + "ORDER BY g.grade_id";
+        try {
+            forEachRow(sql, fetchSize, GradeDAOImpl::readGradeView, consumer);
+        } catch (SQLException e) {
+            throw new Exception("Error getting grade views: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int countGrades() throws Exception {
+        // Foreign keys are enforced, so every grade has the student and subject the views join to
+        try {
+            return queryList("SELECT COUNT(*) FROM Grades", rs -> rs.getInt(1)).get(0);
+        } catch (SQLException e) {
+            throw new Exception("Error counting grades: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<GradeDAO.GradeView> getGradeViewsAt(int offset, int limit) throws Exception {
+        try {
+            return queryList(VIEW_AT_SQL, GradeDAOImpl::readGradeView, offset, limit);
+        } catch (SQLException e) {
+            throw new Exception("Error getting grades block: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<GradeDAO.GradeView> searchGrades(String term, int limit, int offset) throws Exception {
+        List<GradeDAO.GradeView> views = new ArrayList<>();
+        String prefix = escapeLike(term.trim()) + "%";
+        Double number = parseNumber(term.trim());
+        // Only a whole number can be an id; "85.5" matches grade values, not student or subject 85
+        Long id = parseId(term.trim());
+
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(searchGradesSql(id != null, number != null))) {
+            int index = 1;
+            pstmt.setString(index++, prefix);
+            pstmt.setString(index++, prefix);
+            if (id != null) {
+                pstmt.setLong(index++, id);
+                pstmt.setLong(index++, id);
+            }
+            if (number != null) {
+                pstmt.setDouble(index++, number);
+            }
+            pstmt.setInt(index++, limit);
+            pstmt.setInt(index, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    views.add(readGradeView(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error searching grades: " + e.getMessage(), e);
+        }
+        return views;
+    }
+
+    // The search with only the conditions the term can match; parameters: prefix twice, then the
+    // id twice, then the grade value, then limit and offset
+    static String searchGradesSql(boolean byId, boolean byValue) {
+        // Name matches resolve through the NOCASE name indexes and then probe Grades by id,
+        // so a keystroke never scans the whole Grades table
+        StringBuilder sql = new StringBuilder(VIEW_SELECT +
+                "WHERE g.student_id IN (SELECT student_id FROM Students WHERE name LIKE ? ESCAPE '\\') " +
+                "OR g.subject_id IN (SELECT subject_id FROM Subjects WHERE name LIKE ? ESCAPE '\\') ");
+        if (byId) {
+            sql.append("OR g.student_id = ? OR g.subject_id = ? ");
+        }
+        if (byValue) {
+            sql.append("OR g.grade_value = ? ");
+        }
+        sql.append("ORDER BY g.grade_id LIMIT ? OFFSET ?");
+        return sql.toString();
+    }
+
+    @Override
+    public List<GradeDAO.SubjectAverage> averageBySubject() throws Exception {
+        List<GradeDAO.SubjectAverage> averages = new ArrayList<>();
+        // Aggregate before joining so the scan stays on the covering (subject_id, grade_value) index
+        String sql = "SELECT a.subject_id, su.name AS subject_name, a.grade_count, a.average, a.min_grade, a.max_grade " +
+                "FROM (SELECT subject_id, COUNT(*) AS grade_count, AVG(grade_value) AS average, " +
+                "MIN(grade_value) AS min_grade, MAX(grade_value) AS max_grade " +
+                "FROM Grades GROUP BY subject_id) a " +
+                "JOIN Subjects su ON su.subject_id = a.subject_id " +
+                "ORDER BY a.subject_id";
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                int studentId = rs.getInt("student_id");
-                int subjectId = rs.getInt("subject_id");
-               double gradeValue = rs.getDouble("grade_value");grades.add(new GradeDAO.Grade(studentId, subjectId, gradeValue));
+                averages.add(new GradeDAO.SubjectAverage(
+                        rs.getInt("subject_id"),
+                        rs.getString("subject_name"),
+                        rs.getInt("grade_count"),
+                        rs.getDouble("average"),
+                        rs.getDouble("min_grade"),
+                        rs.getDouble("max_grade")));
             }
         } catch (SQLException e) {
-            throw new Exception("Error getting all grades: " + e.getMessage(), e);
+            throw new Exception("Error getting subject averages: " + e.getMessage(), e);
         }
-        return grades;
+        return averages;
+    }
+
+    @Override
+    public int[] histogram(double[] bucketEdges) throws Exception {
+        return histogram(null, bucketEdges);
+    }
+
+    @Override
+    public int[] histogram(int subjectId, double[] bucketEdges) throws Exception {
+        return histogram(Integer.valueOf(subjectId), bucketEdges);
+    }
+
+    private int[] histogram(Integer subjectId, double[] bucketEdges) throws Exception {
+        int[] counts = new int[bucketEdges.length + 1];
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(histogramSql(bucketEdges.length, subjectId != null))) {
+            int index = 1;
+            for (double edge : bucketEdges) {
+                pstmt.setDouble(index++, edge);
+            }
+            if (subjectId != null) {
+                pstmt.setInt(index, subjectId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    counts[rs.getInt("bucket")] = rs.getInt("grade_count");
+                }
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error getting grade histogram: " + e.getMessage(), e);
+        }
+        return counts;
     }
+
+    // Parameters: the bucket edges, then the subject id when bySubject is set
+    static String histogramSql(int edgeCount, boolean bySubject) {
+        // Bucket in SQL so only one row per non-empty bucket comes back
+        StringBuilder sql = new StringBuilder("SELECT CASE");
+        for (int i = 0; i < edgeCount; i++) {
+            sql.append(" WHEN grade_value < ? THEN ").append(i);
+        }
+        sql.append(" ELSE ").append(edgeCount).append(" END AS bucket, COUNT(*) AS grade_count FROM Grades");
+        if (bySubject) {
+            sql.append(" WHERE subject_id = ?");
+        }
+        sql.append(" GROUP BY bucket");
+        return sql.toString();
+    }
+
     @Override
-    public Connection getConnection() {
-        return connection;
+    public GradeDAO.Percentiles percentiles(int subjectId) throws Exception {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(PERCENTILES_SQL)) {
+            pstmt.setInt(1, subjectId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next() || rs.getInt("grade_count") == 0) {
+                    return null;
+                }
+                return new GradeDAO.Percentiles(
+                        rs.getInt("grade_count"),
+                        rs.getDouble("p25"),
+                        rs.getDouble("p50"),
+                        rs.getDouble("p75"),
+                        rs.getDouble("p90"));
+            }
+        } catch (SQLException e) {
+            throw new Exception("Error getting grade percentiles: " + e.getMessage(), e);
+        }
+    }
+
+    // The term as a grade value, or null; "NaN" and "Infinity" parse but can never be a grade
+    private static Double parseNumber(String term) {
+        try {
+            double number = Double.parseDouble(term);
+            return Double.isFinite(number) ? number : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static GradeDAO.GradeView readGradeView(ResultSet rs) throws SQLException {
+        return new GradeDAO.GradeView(
+                rs.getInt("grade_id"),
+                rs.getInt("student_id"),
+                rs.getString("student_name"),
+                rs.getInt("subject_id"),
+                rs.getString("subject_name"),
+                rs.getDouble("grade_value"));
     }
-    
+
 	public void addGrade(Student student, int subjectId, double gradeValue) throws Exception{
     	String sql = "INSERT INTO Grades (student_id, subject_id, grade_value) VALUES (?, ?, ?)";
     	
-    	try (PreparedStatement pstmt = connection.prepareStatement(sql)){
+    	try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)){
     		pstmt.setInt(1, student.getStudentId());
     		pstmt.setInt(2, subjectId);
     		pstmt.setDouble(3, gradeValue);
@@ -105,4 +352,40 @@ public class GradeDAOImpl extends AbstractDAO implements GradeDAO{
             throw new Exception("Error adding grade: " + e.getMessage(), e);
         }
 	}
-}
\ No newline at end of file
+
+    @Override
+    public int[] createGradeBatch(Collection<GradeDAO.Grade> grades, int chunkSize) throws Exception {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        // ux_grades_key makes grades that already exist come back with an update count of 0
+        String sql = "INSERT OR IGNORE INTO Grades (student_id, subject_id, grade_value) VALUES (?, ?, ?)";
+        int[] results = new int[grades.size()];
+        try {
+            // Joins the caller's unit of work if there is one
+            TransactionManager.inTransaction(() -> {
+                try (Connection connection = openConnection();
+                     PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                    int index = 0;
+                    int pending = 0;
+                    for (GradeDAO.Grade grade : grades) {
+                        pstmt.setInt(1, grade.getStudentId());
+                        pstmt.setInt(2, grade.getSubjectId());
+                        pstmt.setDouble(3, grade.getGrade());
+                        pstmt.addBatch();
+                        if (++pending == chunkSize) {
+                            index = copyCounts(pstmt.executeBatch(), results, index);
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        copyCounts(pstmt.executeBatch(), results, index);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw new Exception("Error creating grade batch: " + e.getMessage(), e);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.studentperformance.dao;
+
+import com.example.studentperformance.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks with {@code EXPLAIN QUERY PLAN} that the DAOs' keyed and filtered statements are
+ * answered from an index. A plan step reading {@code SCAN <table>} means SQLite walks the
+ * whole table (or a whole index) and the statement will slow down as the table grows.
+ * <p>
+ * Statements that are meant to read everything, such as {@code getAllGrades}, are not
+ * checked. Run {@link #main} against a database to use it as a build or deployment gate;
+ * {@code SchemaMigrator} also logs its findings after every migration.
+ */
+public final class QueryPlanCheck {
+
+    // A name prefix as the search screens bind it; LIKE only uses an index once it sees one
+    private static final String NAME_PREFIX = "a%";
+
+    private QueryPlanCheck() {
+    }
+
+    // SQL as the DAOs issue it, with the leading parameters its plan depends on; the rest
+    // stay unbound, since the plan does not depend on their values
+    record CheckedStatement(String sql, Object... params) {
+    }
+
+    // Statement name -> statement
+    static Map<String, CheckedStatement> checkedStatements() {
+        Map<String, CheckedStatement> statements = new LinkedHashMap<>();
+        statements.put("AttendanceDAO.readAttendance", new CheckedStatement(AttendanceDAOImpl.READ_SQL));
+        statements.put("AttendanceDAO.updateAttendance", new CheckedStatement(AttendanceDAOImpl.UPDATE_SQL));
+        statements.put("AttendanceDAO.deleteAttendance", new CheckedStatement(AttendanceDAOImpl.DELETE_SQL));
+        statements.put("GradeDAO.readGrade", new CheckedStatement(GradeDAOImpl.READ_SQL));
+        statements.put("GradeDAO.updateGrade", new CheckedStatement(GradeDAOImpl.UPDATE_SQL));
+        statements.put("GradeDAO.deleteGrade", new CheckedStatement(GradeDAOImpl.DELETE_SQL));
+
+        // Keyset pages after the first; the first page is a bounded scan from the start
+        statements.put("StudentDAO.getStudentsPage", new CheckedStatement(StudentDAOImpl.PAGE_SQL));
+        statements.put("StudentDAO.getStudentsPageByName", new CheckedStatement(StudentDAOImpl.PAGE_BY_NAME_SQL));
+        statements.put("SubjectDAO.getSubjectsPage", new CheckedStatement(SubjectDAOImpl.PAGE_SQL));
+        statements.put("SubjectDAO.getSubjectsPageByName", new CheckedStatement(SubjectDAOImpl.PAGE_BY_NAME_SQL));
+
+        // The block read of the lazy attendance table in date order; finding where a block starts
+        // skips its offset on an index by design, so those statements are not checked
+        statements.put("AttendanceDAO.getAttendanceViewsByDateAt",
+                new CheckedStatement(AttendanceDAOImpl.VIEW_PAGE_BY_DATE_SQL));
+
+        // Each shape a search term can take: a name only, or also an id, a date or a grade value
+        statements.put("StudentDAO.searchStudents(name)",
+                new CheckedStatement(StudentDAOImpl.searchSql(false, false), NAME_PREFIX));
+        statements.put("StudentDAO.searchStudents(name, id) by name",
+                new CheckedStatement(StudentDAOImpl.searchSql(true, true), NAME_PREFIX));
+        statements.put("SubjectDAO.searchSubjects(name)",
+                new CheckedStatement(SubjectDAOImpl.searchSql(false, false), NAME_PREFIX));
+        statements.put("SubjectDAO.searchSubjects(name, id) by name",
+                new CheckedStatement(SubjectDAOImpl.searchSql(true, true), NAME_PREFIX));
+        statements.put("AttendanceDAO.searchAttendance(name)",
+                new CheckedStatement(AttendanceDAOImpl.searchAttendanceSql(false, false, false),
+                        NAME_PREFIX, NAME_PREFIX));
+        statements.put("AttendanceDAO.searchAttendance(name, id)",
+                new CheckedStatement(AttendanceDAOImpl.searchAttendanceSql(true, false, false),
+                        NAME_PREFIX, NAME_PREFIX));
+        statements.put("AttendanceDAO.searchAttendance(name, date) by date",
+                new CheckedStatement(AttendanceDAOImpl.searchAttendanceSql(false, true, true),
+                        NAME_PREFIX, NAME_PREFIX));
+        statements.put("GradeDAO.searchGrades(name)",
+                new CheckedStatement(GradeDAOImpl.searchGradesSql(false, false), NAME_PREFIX, NAME_PREFIX));
+        statements.put("GradeDAO.searchGrades(name, id, value)",
+                new CheckedStatement(GradeDAOImpl.searchGradesSql(true, true), NAME_PREFIX, NAME_PREFIX));
+
+        // Per-subject aggregates; the histogram over all subjects reads every grade by design
+        statements.put("GradeDAO.histogram(subject)", new CheckedStatement(GradeDAOImpl.histogramSql(4, true)));
+        statements.put("GradeDAO.percentiles", new CheckedStatement(GradeDAOImpl.PERCENTILES_SQL));
+
+        // The date filters with the combinations the screens use, under both date encodings;
+        // only the SQL matters here
+        LocalDate day = LocalDate.now();
+        List<Object> ignored = new ArrayList<>();
+        for (AttendanceDateCodec codec : AttendanceDateCodec.values()) {
+            String encoding = ", " + codec.name() + ")";
+            statements.put("AttendanceDAO.findAttendance(date range" + encoding, new CheckedStatement(
+                    AttendanceDAOImpl.findAttendanceSql(codec, ignored, day, day, null, null)));
+            statements.put("AttendanceDAO.findAttendance(student, date range" + encoding, new CheckedStatement(
+                    AttendanceDAOImpl.findAttendanceSql(codec, ignored, day, day, 1, null)));
+            statements.put("AttendanceDAO.findAttendance(subject, date range" + encoding, new CheckedStatement(
+                    AttendanceDAOImpl.findAttendanceSql(codec, ignored, day, day, null, 1)));
+            statements.put("AttendanceDAO.findAttendance(student, subject, date range" + encoding, new CheckedStatement(
+                    AttendanceDAOImpl.findAttendanceSql(codec, ignored, day, day, 1, 1)));
+            statements.put("AttendanceDAO.rollupDaily(date range" + encoding, new CheckedStatement(
+                    AttendanceDAOImpl.rollupDailySql(codec, ignored, day, day, null, null)));
+            statements.put("AttendanceDAO.rollupDaily(student, date range" + encoding, new CheckedStatement(
+                    AttendanceDAOImpl.rollupDailySql(codec, ignored, day, day, 1, null)));
+            statements.put("AttendanceDAO.rollupDaily(subject, date range" + encoding, new CheckedStatement(
+                    AttendanceDAOImpl.rollupDailySql(codec, ignored, day, day, null, 1)));
+        }
+        return statements;
+    }
+
+    /**
+     * Returns one message per checked statement whose plan contains a full scan, empty when
+     * every statement is index-backed.
+     */
+    public static List<String> findFullScans(Connection connection) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, CheckedStatement> statement : checkedStatements().entrySet()) {
+            CheckedStatement checked = statement.getValue();
+            try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + checked.sql())) {
+                for (int i = 0; i < checked.params().length; i++) {
+                    pstmt.setObject(i + 1, checked.params()[i]);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    // Scans of a CTE or subquery read rows the plan produced itself, not a table
+                    Set<String> intermediates = new HashSet<>();
+                    while (rs.next()) {
+                        String detail = rs.getString("detail");
+                        if (detail.startsWith("CO-ROUTINE ") || detail.startsWith("MATERIALIZE ")) {
+                            intermediates.add(detail.substring(detail.indexOf(' ') + 1));
+                        } else if (detail.startsWith("SCAN ") && !intermediates.contains(detail.substring(5))) {
+                            problems.add(statement.getKey() + ": " + detail);
+                        }
+                    }
+                }
+            }
+        }
+        return problems;
+    }
+
+    public static void main(String[] args) {
+        int status = 0;
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            List<String> problems = findFullScans(connection);
+            if (problems.isEmpty()) {
+                System.out.println("All " + checkedStatements().size() + " checked statements use an index");
+            } else {
+                problems.forEach(problem -> System.err.println("Full scan in " + problem));
+                status = 1;
+            }
+        } catch (SQLException e) {
+            System.err.println("Query plan check failed: " + e.getMessage());
+            status = 2;
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+        System.exit(status);
+    }
+}
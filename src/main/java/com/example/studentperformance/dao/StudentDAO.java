@@ -1,6 +1,7 @@
 package com.example.studentperformance.dao;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StudentDAO {
     class Student {
@@ -29,8 +30,39 @@ public interface StudentDAO {
         }
     }
     void createStudent(String name) throws Exception;
+
+    // Inserts the student under a given id rather than the next free one, e.g. when restoring an export
+    void createStudent(int studentId, String name) throws Exception;
+
     Student readStudent(int studentId) throws Exception;
     void updateStudent(int studentId, String newName) throws Exception;
     void deleteStudent(int studentId) throws Exception;
     List<Student> getAllStudents() throws Exception;
+
+    // Streams every student to the consumer without buffering the table
+    void forEachStudent(Consumer<Student> consumer, int fetchSize) throws Exception;
+
+    default void forEachStudent(Consumer<Student> consumer) throws Exception {
+        forEachStudent(consumer, AbstractDAO.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Keyset pagination in student id order: returns up to limit students whose id is greater than
+     * afterStudentId, or the first page when it is null. Pass the id of the last row of one page to
+     * get the next, so every page costs the same however deep the user has scrolled.
+     */
+    List<Student> getStudentsPage(Integer afterStudentId, int limit) throws Exception;
+
+    /**
+     * Keyset pagination in case-insensitive name order, ties broken by id: pass the name and
+     * id of the last row of the previous page, or a null name for the first page.
+     */
+    List<Student> getStudentsPageByName(String afterName, int afterStudentId, int limit) throws Exception;
+
+    /**
+     * Returns one page of students whose name starts with the term (case-insensitive), or whose
+     * id equals it when it is a whole number. Ordered by name, ties broken by id, when byName
+     * is set, otherwise in id order.
+     */
+    List<Student> searchStudents(String term, boolean byName, int limit, int offset) throws Exception;
 }
\ No newline at end of file
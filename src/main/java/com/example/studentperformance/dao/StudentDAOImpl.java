@@ -1,23 +1,30 @@
 package com.example.studentperformance.dao;
 
 import java.sql.Connection;
-import java.sql.Statement;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public class StudentDAOImpl extends AbstractDAO implements StudentDAO {
 
-    public StudentDAOImpl(Connection connection) {
-        super(connection);
-    }
+    // Keyset pages; the seeks are served by the primary key and by idx_name_students. The name
+    // condition is spelled out because SQLite cannot seek an index on a (name, rowid) row value
+    static final String PAGE_SQL =
+            "SELECT student_id, name FROM Students WHERE student_id > ? ORDER BY student_id LIMIT ?";
+    static final String PAGE_BY_NAME_SQL =
+            "SELECT student_id, name FROM Students " +
+            "WHERE name >= ?1 COLLATE NOCASE AND (name > ?1 COLLATE NOCASE OR student_id > ?2) " +
+            "ORDER BY name COLLATE NOCASE, student_id LIMIT ?3";
+
     @Override
     public void createStudent(String name) throws Exception {
         String sql = "INSERT INTO Students (name) VALUES (?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, name);
             pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -25,10 +32,24 @@ public class StudentDAOImpl extends AbstractDAO implements StudentDAO {
         }
     }
 
+    @Override
+    public void createStudent(int studentId, String name) throws Exception {
+        String sql = "INSERT INTO Students (student_id, name) VALUES (?, ?)";
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, studentId);
+            pstmt.setString(2, name);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new Exception("Error creating student: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public StudentDAO.Student readStudent(int studentId) throws Exception {
         String sql = "SELECT name FROM Students WHERE student_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, studentId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -46,7 +67,8 @@ public class StudentDAOImpl extends AbstractDAO implements StudentDAO {
     @Override
     public void updateStudent(int studentId, String newName) throws Exception {
         String sql = "UPDATE Students SET name = ? WHERE student_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, newName);
             pstmt.setInt(2, studentId);
             pstmt.executeUpdate();
@@ -58,7 +80,8 @@ public class StudentDAOImpl extends AbstractDAO implements StudentDAO {
     @Override
     public void deleteStudent(int studentId) throws Exception {
         String sql = "DELETE FROM Students WHERE student_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, studentId);
             pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -68,18 +91,68 @@ public class StudentDAOImpl extends AbstractDAO implements StudentDAO {
 
     @Override
     public List<Student> getAllStudents() throws Exception {
-        String sql = "SELECT student_id, name FROM Students";
         List<Student> students = new ArrayList<>();
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                int studentId = rs.getInt("student_id");
-                String name = rs.getString("name");
-                students.add(new Student(studentId, name));
-            }
+        forEachStudent(students::add);
+        return students;
+    }
+
+    @Override
+    public void forEachStudent(Consumer<Student> consumer, int fetchSize) throws Exception {
+        String sql = "SELECT student_id, name FROM Students";
+        try {
+            forEachRow(sql, fetchSize, StudentDAOImpl::mapStudent, consumer);
         } catch (SQLException e) {
             throw new Exception("Error getting all students: " + e.getMessage(), e);
         }
-        return students;
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<Student> getStudentsPage(Integer afterStudentId, int limit) throws Exception {
+        try {
+            // Ids start at 1, so 0 reads from the beginning
+            return queryList(PAGE_SQL, StudentDAOImpl::mapStudent, afterStudentId == null ? 0 : afterStudentId, limit);
+        } catch (SQLException e) {
+            throw new Exception("Error getting students page: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Student> getStudentsPageByName(String afterName, int afterStudentId, int limit) throws Exception {
+        try {
+            if (afterName == null) {
+                return queryList("SELECT student_id, name FROM Students ORDER BY name COLLATE NOCASE, student_id LIMIT ?",
+                        StudentDAOImpl::mapStudent, limit);
+            }
+            return queryList(PAGE_BY_NAME_SQL, StudentDAOImpl::mapStudent, afterName, afterStudentId, limit);
+        } catch (SQLException e) {
+            throw new Exception("Error getting students page: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Student> searchStudents(String term, boolean byName, int limit, int offset) throws Exception {
+        String trimmed = term.trim();
+        String prefix = escapeLike(trimmed) + "%";
+        Long id = parseId(trimmed);
+        try {
+            if (id == null) {
+                return queryList(searchSql(false, byName), StudentDAOImpl::mapStudent, prefix, limit, offset);
+            }
+            return queryList(searchSql(true, byName), StudentDAOImpl::mapStudent, prefix, id, limit, offset);
+        } catch (SQLException e) {
+            throw new Exception("Error searching students: " + e.getMessage(), e);
+        }
+    }
+
+    // Name prefixes are served by idx_name_students, which also hands them over in name order
+    static String searchSql(boolean byId, boolean byName) {
+        return "SELECT student_id, name FROM Students WHERE name LIKE ? ESCAPE '\\' " +
+                (byId ? "OR student_id = ? " : "") +
+                (byName ? "ORDER BY name COLLATE NOCASE, student_id " : "ORDER BY student_id ") +
+                "LIMIT ? OFFSET ?";
+    }
+
+    private static Student mapStudent(ResultSet rs) throws SQLException {
+        return new Student(rs.getInt("student_id"), rs.getString("name"));
+    }
+}
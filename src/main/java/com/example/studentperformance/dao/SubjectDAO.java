@@ -1,6 +1,7 @@
 package com.example.studentperformance.dao;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface SubjectDAO {
     class Subject {
@@ -30,8 +31,39 @@ public interface SubjectDAO {
     }
 
     void createSubject(String name) throws Exception;
+
+    // Inserts the subject under a given id rather than the next free one, e.g. when restoring an export
+    void createSubject(int subjectId, String name) throws Exception;
+
     Subject readSubject(int subjectId) throws Exception;
     void updateSubject(int subjectId, String newName) throws Exception;
     void deleteSubject(int subjectId) throws Exception;
     List<Subject> getAllSubjects() throws Exception;
+
+    // Streams every subject to the consumer without buffering the table
+    void forEachSubject(Consumer<Subject> consumer, int fetchSize) throws Exception;
+
+    default void forEachSubject(Consumer<Subject> consumer) throws Exception {
+        forEachSubject(consumer, AbstractDAO.DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Keyset pagination in subject id order: returns up to limit subjects whose id is greater than
+     * afterSubjectId, or the first page when it is null. Pass the id of the last row of one page to
+     * get the next, so every page costs the same however deep the user has scrolled.
+     */
+    List<Subject> getSubjectsPage(Integer afterSubjectId, int limit) throws Exception;
+
+    /**
+     * Keyset pagination in case-insensitive name order, ties broken by id: pass the name and
+     * id of the last row of the previous page, or a null name for the first page.
+     */
+    List<Subject> getSubjectsPageByName(String afterName, int afterSubjectId, int limit) throws Exception;
+
+    /**
+     * Returns one page of subjects whose name starts with the term (case-insensitive), or whose
+     * id equals it when it is a whole number. Ordered by name, ties broken by id, when byName
+     * is set, otherwise in id order.
+     */
+    List<Subject> searchSubjects(String term, boolean byName, int limit, int offset) throws Exception;
 }
\ No newline at end of file
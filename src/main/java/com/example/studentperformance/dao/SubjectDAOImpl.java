@@ -2,6 +2,7 @@ package com.example.studentperformance.dao;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.function.Consumer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -9,17 +10,21 @@ import java.sql.SQLException;
 
 
 public class SubjectDAOImpl extends AbstractDAO implements SubjectDAO {
-    private final Connection connection;
 
-    public SubjectDAOImpl(Connection connection) {
-        super(connection);
-        this.connection = connection;
-    }
+    // Keyset pages; the seeks are served by the primary key and by idx_name_subjects. The name
+    // condition is spelled out because SQLite cannot seek an index on a (name, rowid) row value
+    static final String PAGE_SQL =
+            "SELECT subject_id, name FROM Subjects WHERE subject_id > ? ORDER BY subject_id LIMIT ?";
+    static final String PAGE_BY_NAME_SQL =
+            "SELECT subject_id, name FROM Subjects " +
+            "WHERE name >= ?1 COLLATE NOCASE AND (name > ?1 COLLATE NOCASE OR subject_id > ?2) " +
+            "ORDER BY name COLLATE NOCASE, subject_id LIMIT ?3";
 
     @Override
     public void createSubject(String name) throws Exception {
         String sql = "INSERT INTO Subjects (name) VALUES (?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, name);
             pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -27,10 +32,24 @@ public class SubjectDAOImpl extends AbstractDAO implements SubjectDAO {
         }
     }
 
+    @Override
+    public void createSubject(int subjectId, String name) throws Exception {
+        String sql = "INSERT INTO Subjects (subject_id, name) VALUES (?, ?)";
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, subjectId);
+            pstmt.setString(2, name);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new Exception("Error creating subject: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public SubjectDAO.Subject readSubject(int subjectId) throws Exception {
         String sql = "SELECT name FROM Subjects WHERE subject_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, subjectId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -48,7 +67,8 @@ public class SubjectDAOImpl extends AbstractDAO implements SubjectDAO {
     @Override
     public void updateSubject(int subjectId, String newName) throws Exception {
         String sql = "UPDATE Subjects SET name = ? WHERE subject_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, newName);
             pstmt.setInt(2, subjectId);
             pstmt.executeUpdate();
@@ -60,7 +80,8 @@ public class SubjectDAOImpl extends AbstractDAO implements SubjectDAO {
     @Override
     public void deleteSubject(int subjectId) throws Exception {
         String sql = "DELETE FROM Subjects WHERE subject_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = openConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, subjectId);
             pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -71,18 +92,67 @@ public class SubjectDAOImpl extends AbstractDAO implements SubjectDAO {
     @Override
     public List<SubjectDAO.Subject> getAllSubjects() throws Exception {
         List<SubjectDAO.Subject> subjects = new ArrayList<>();
+        forEachSubject(subjects::add);
+        return subjects;
+    }
+
+    @Override
+    public void forEachSubject(Consumer<SubjectDAO.Subject> consumer, int fetchSize) throws Exception {
         String sql = "SELECT subject_id, name FROM Subjects";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                int subjectId = rs.getInt("subject_id");
-                String name = rs.getString("name");
-                subjects.add(new SubjectDAO.Subject(subjectId, name));
-            }
+        try {
+            forEachRow(sql, fetchSize, SubjectDAOImpl::mapSubject, consumer);
         } catch (SQLException e) {
             throw new Exception("Error getting all subjects: " + e.getMessage(), e);
         }
-        return subjects;
     }
 
-}
\ No newline at end of file
+    @Override
+    public List<Subject> getSubjectsPage(Integer afterSubjectId, int limit) throws Exception {
+        try {
+            // Ids start at 1, so 0 reads from the beginning
+            return queryList(PAGE_SQL, SubjectDAOImpl::mapSubject, afterSubjectId == null ? 0 : afterSubjectId, limit);
+        } catch (SQLException e) {
+            throw new Exception("Error getting subjects page: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Subject> getSubjectsPageByName(String afterName, int afterSubjectId, int limit) throws Exception {
+        try {
+            if (afterName == null) {
+                return queryList("SELECT subject_id, name FROM Subjects ORDER BY name COLLATE NOCASE, subject_id LIMIT ?",
+                        SubjectDAOImpl::mapSubject, limit);
+            }
+            return queryList(PAGE_BY_NAME_SQL, SubjectDAOImpl::mapSubject, afterName, afterSubjectId, limit);
+        } catch (SQLException e) {
+            throw new Exception("Error getting subjects page: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Subject> searchSubjects(String term, boolean byName, int limit, int offset) throws Exception {
+        String trimmed = term.trim();
+        String prefix = escapeLike(trimmed) + "%";
+        Long id = parseId(trimmed);
+        try {
+            if (id == null) {
+                return queryList(searchSql(false, byName), SubjectDAOImpl::mapSubject, prefix, limit, offset);
+            }
+            return queryList(searchSql(true, byName), SubjectDAOImpl::mapSubject, prefix, id, limit, offset);
+        } catch (SQLException e) {
+            throw new Exception("Error searching subjects: " + e.getMessage(), e);
+        }
+    }
+
+    // Name prefixes are served by idx_name_subjects, which also hands them over in name order
+    static String searchSql(boolean byId, boolean byName) {
+        return "SELECT subject_id, name FROM Subjects WHERE name LIKE ? ESCAPE '\\' " +
+                (byId ? "OR subject_id = ? " : "") +
+                (byName ? "ORDER BY name COLLATE NOCASE, subject_id " : "ORDER BY subject_id ") +
+                "LIMIT ? OFFSET ?";
+    }
+
+    private static Subject mapSubject(ResultSet rs) throws SQLException {
+        return new Subject(rs.getInt("subject_id"), rs.getString("name"));
+    }
+}
@@ -0,0 +1,682 @@
+package com.example.studentperformance.transfer;
+
+import com.example.studentperformance.DatabaseConnection;
+import com.example.studentperformance.SchemaMigrator;
+import com.example.studentperformance.TransactionManager;
+import com.example.studentperformance.dao.AttendanceDAO;
+import com.example.studentperformance.dao.AttendanceDAOImpl;
+import com.example.studentperformance.dao.DAOFactory;
+import com.example.studentperformance.dao.GradeDAO;
+import com.example.studentperformance.dao.GradeDAOImpl;
+import com.example.studentperformance.dao.StudentDAO;
+import com.example.studentperformance.dao.SubjectDAO;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads CSV files into the database through the DAOs.
+ * <p>
+ * The file is read one record at a time and written in transactions of
+ * {@link #DEFAULT_TRANSACTION_SIZE} rows, so memory use does not grow with the file and a
+ * failure or cancellation keeps every transaction committed before it. Students and subjects
+ * are referred to by name and resolved through a name-to-id map read once per import; a
+ * column named student_id or subject_id takes ids instead, checked against the ids read the
+ * same way. Rows that fail validation, such as a name or id that is not in the database, are
+ * counted and reported with their line number rather than stopping the import, and rows that
+ * already exist in the database are skipped.
+ * <p>
+ * Expected headers, in any column order and case: {@code name} for students and subjects,
+ * optionally with {@code student_id} or {@code subject_id} to keep the ids of an export,
+ * {@code student,subject,grade} for grades, {@code student,subject,date,present} for
+ * attendance, with ISO dates and present as true/false, yes/no, present/absent or 1/0.
+ */
+public class CsvImporter {
+
+    public static final int DEFAULT_TRANSACTION_SIZE = 10_000;
+
+    // Rows read between progress reports and cancellation checks
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    // Rejected rows kept with their reason; the rest are only counted
+    private static final int MAX_REPORTED_REJECTS = 100;
+
+    // The table a file is imported into
+    public enum Table {
+        STUDENTS("Students"),
+        SUBJECTS("Subjects"),
+        GRADES("Grades"),
+        ATTENDANCE("Attendance");
+
+        private final String label;
+
+        Table(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Outcome of one import
+    public static class Result {
+        private final Table table;
+        private final long rowsRead;
+        private final long imported;
+        private final long skipped;
+        private final long rejected;
+        private final List<String> rejects;
+        private final long elapsedMillis;
+        private final boolean cancelled;
+
+        Result(Table table, long rowsRead, long imported, long skipped, long rejected, List<String> rejects,
+               long elapsedMillis, boolean cancelled) {
+            this.table = table;
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.skipped = skipped;
+            this.rejected = rejected;
+            this.rejects = Collections.unmodifiableList(rejects);
+            this.elapsedMillis = elapsedMillis;
+            this.cancelled = cancelled;
+        }
+
+        public Table getTable() {
+            return table;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        // Rows that already existed in the database or earlier in the file
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        // "line N: reason" for the first rejected rows
+        public List<String> getRejects() {
+            return rejects;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %,d rows read, %,d imported, %,d skipped, %,d rejected in %.1f s (%,.0f rows/s)%s",
+                    table, rowsRead, imported, skipped, rejected, elapsedMillis / 1000.0, getRowsPerSecond(),
+                    cancelled ? ", cancelled" : "");
+        }
+    }
+
+    private final StudentDAO studentDAO;
+    private final SubjectDAO subjectDAO;
+    private final GradeDAO gradeDAO;
+    private final AttendanceDAO attendanceDAO;
+    private final int transactionSize;
+
+    // Writes through the shared DAOs, so the student and subject caches see the new rows
+    public CsvImporter() {
+        this(DAOFactory.studentDAO(), DAOFactory.subjectDAO(), new GradeDAOImpl(), new AttendanceDAOImpl(),
+                DEFAULT_TRANSACTION_SIZE);
+    }
+
+    public CsvImporter(StudentDAO studentDAO, SubjectDAO subjectDAO, GradeDAO gradeDAO, AttendanceDAO attendanceDAO,
+                       int transactionSize) {
+        if (transactionSize < 1) {
+            throw new IllegalArgumentException("Transaction size must be at least 1");
+        }
+        this.studentDAO = studentDAO;
+        this.subjectDAO = subjectDAO;
+        this.gradeDAO = gradeDAO;
+        this.attendanceDAO = attendanceDAO;
+        this.transactionSize = transactionSize;
+    }
+
+    /**
+     * Imports a UTF-8 file, gzip-compressed if its name ends in .gz; progress reports rows read
+     * and bytes of the file read so far.
+     */
+    public Result importFile(Table table, Path file, TransferProgress progress) throws Exception {
+        boolean gzip = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+             CsvReader csv = new CsvReader(new InputStreamReader(
+                     gzip ? new GZIPInputStream(in, 64 * 1024) : in, StandardCharsets.UTF_8))) {
+            return importCsv(table, csv, in, progress);
+        }
+    }
+
+    private Result importCsv(Table table, CsvReader csv, CountingInputStream in, TransferProgress progress)
+            throws Exception {
+        long start = System.nanoTime();
+        String[] header = csv.next();
+        if (header == null) {
+            return new Result(table, 0, 0, 0, 0, new ArrayList<>(), 0, false);
+        }
+        Batch batch = newBatch(table, new Header(header));
+
+        long rowsRead = 0;
+        long rejected = 0;
+        List<String> rejects = new ArrayList<>();
+        boolean cancelled = false;
+        String[] row;
+        while ((row = csv.next()) != null) {
+            rowsRead++;
+            String error;
+            try {
+                error = batch.add(row);
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            }
+            if (error != null) {
+                if (rejected++ < MAX_REPORTED_REJECTS) {
+                    rejects.add("line " + csv.getLineNumber() + ": " + error);
+                }
+            }
+            if (batch.size() >= transactionSize) {
+                batch.flush();
+            }
+            if (rowsRead % PROGRESS_INTERVAL == 0) {
+                progress.update(rowsRead, in.getCount());
+                if (progress.isCancelled()) {
+                    cancelled = true;
+                    break;
+                }
+            }
+        }
+        // Rows accepted before a cancellation are still written
+        batch.flush();
+        progress.update(rowsRead, in.getCount());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(table, rowsRead, batch.imported, batch.skipped, rejected, rejects, elapsedMillis, cancelled);
+    }
+
+    private Batch newBatch(Table table, Header header) throws Exception {
+        switch (table) {
+            case STUDENTS:
+                return new StudentBatch(header, studentNames());
+            case SUBJECTS:
+                return new SubjectBatch(header, subjectNames());
+            case GRADES:
+                return new GradeBatch(header, studentIds(header), subjectIds(header));
+            case ATTENDANCE:
+                return new AttendanceBatch(header, studentIds(header), subjectIds(header));
+            default:
+                throw new IllegalArgumentException("Unknown table: " + table);
+        }
+    }
+
+    // Every student by name, or by id if the file gives ids and no names
+    private KeyIndex studentIds(Header header) throws Exception {
+        KeyIndex index = new KeyIndex("student", header.has("student_id") && !header.has("student"));
+        studentDAO.forEachStudent(student -> index.put(student.getName(), student.getStudentId()));
+        return index;
+    }
+
+    private KeyIndex subjectIds(Header header) throws Exception {
+        KeyIndex index = new KeyIndex("subject", header.has("subject_id") && !header.has("subject"));
+        subjectDAO.forEachSubject(subject -> index.put(subject.getName(), subject.getSubjectId()));
+        return index;
+    }
+
+    // Id -> name key of every student
+    private Map<Integer, String> studentNames() throws Exception {
+        Map<Integer, String> names = new HashMap<>();
+        studentDAO.forEachStudent(student -> names.put(student.getStudentId(), KeyIndex.key(student.getName())));
+        return names;
+    }
+
+    private Map<Integer, String> subjectNames() throws Exception {
+        Map<Integer, String> names = new HashMap<>();
+        subjectDAO.forEachSubject(subject -> names.put(subject.getSubjectId(), KeyIndex.key(subject.getName())));
+        return names;
+    }
+
+    // Column positions by lower-cased header name
+    private static final class Header {
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        Header(String[] names) {
+            for (int i = 0; i < names.length; i++) {
+                columns.putIfAbsent(names[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        boolean has(String name) {
+            return columns.containsKey(name);
+        }
+
+        int require(String... alternatives) {
+            for (String name : alternatives) {
+                Integer column = columns.get(name);
+                if (column != null) {
+                    return column;
+                }
+            }
+            throw new IllegalArgumentException("Missing column: " + String.join(" or ", alternatives));
+        }
+    }
+
+    /**
+     * The students or subjects a file can refer to. By name the lookup is case-insensitive and
+     * a name shared by several rows resolves to none of them; by id only ids present in the
+     * database are accepted, since a foreign key violation would fail the whole transaction.
+     */
+    private static final class KeyIndex {
+        private static final int AMBIGUOUS = -1;
+        private final String kind;
+        private final boolean byId;
+        private final Map<String, Integer> names = new HashMap<>();
+        private final Set<Integer> ids = new HashSet<>();
+
+        KeyIndex(String kind, boolean byId) {
+            this.kind = kind;
+            this.byId = byId;
+        }
+
+        void put(String name, int id) {
+            if (byId) {
+                ids.add(id);
+            } else {
+                names.merge(key(name), id, (a, b) -> AMBIGUOUS);
+            }
+        }
+
+        static String key(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+
+        // The id the field refers to; throws with the reason the row is rejected otherwise
+        int resolve(String value) {
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("missing " + kind);
+            }
+            if (byId) {
+                int id;
+                try {
+                    id = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("invalid " + kind + " id '" + value + "'");
+                }
+                if (!ids.contains(id)) {
+                    throw new IllegalArgumentException("unknown " + kind + " id " + id);
+                }
+                return id;
+            }
+            Integer id = names.get(key(value));
+            if (id == null) {
+                throw new IllegalArgumentException("unknown " + kind + " '" + value + "'");
+            }
+            if (id == AMBIGUOUS) {
+                throw new IllegalArgumentException("more than one " + kind + " is named '" + value + "'");
+            }
+            return id;
+        }
+    }
+
+    // Collects validated rows and writes them in one transaction per flush
+    private abstract static class Batch {
+        long imported;
+        long skipped;
+
+        // Returns why the row was rejected, or null if it was accepted
+        abstract String add(String[] row);
+
+        abstract int size();
+
+        abstract void flush() throws Exception;
+
+        static String field(String[] row, int column) {
+            return column < row.length ? row[column].trim() : "";
+        }
+    }
+
+    /**
+     * Students or subjects. Without an id column each row gets the next free id and a name
+     * already taken is skipped. With one, as in a {@link DataExporter} file, each row keeps its
+     * id so grade and attendance files that refer to those ids can follow: an id already
+     * holding the same name is skipped and one holding another name is rejected.
+     */
+    private abstract static class NameBatch extends Batch {
+        private final String kind;
+        private final int nameColumn;
+        private final int idColumn;
+        // Name keys by id, in the database and earlier in the file
+        private final Map<Integer, String> known;
+        // Keys of the names in the database and earlier in the file; only kept without an id column
+        private final Set<String> knownNames;
+        private final List<String> names = new ArrayList<>();
+        // Parallel to names; null where the row gets the next free id
+        private final List<Integer> ids = new ArrayList<>();
+
+        NameBatch(Header header, String kind, Map<Integer, String> known) {
+            this.kind = kind;
+            this.nameColumn = header.require("name");
+            this.idColumn = header.has(kind + "_id") ? header.require(kind + "_id") : -1;
+            this.known = known;
+            this.knownNames = idColumn < 0 ? new HashSet<>(known.values()) : null;
+        }
+
+        @Override
+        String add(String[] row) {
+            String name = field(row, nameColumn);
+            if (name.isEmpty()) {
+                return "missing name";
+            }
+            String key = KeyIndex.key(name);
+            if (idColumn < 0) {
+                // Names are how grade and attendance files refer to rows, so keep them unique
+                if (!knownNames.add(key)) {
+                    skipped++;
+                    return null;
+                }
+                names.add(name);
+                ids.add(null);
+                return null;
+            }
+            String value = field(row, idColumn);
+            int id;
+            try {
+                id = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return "invalid " + kind + " id '" + value + "'";
+            }
+            String existing = known.putIfAbsent(id, key);
+            if (existing != null) {
+                if (existing.equals(key)) {
+                    skipped++;
+                    return null;
+                }
+                return kind + " id " + id + " already belongs to another " + kind;
+            }
+            names.add(name);
+            ids.add(id);
+            return null;
+        }
+
+        @Override
+        int size() {
+            return names.size();
+        }
+
+        @Override
+        void flush() throws Exception {
+            if (names.isEmpty()) {
+                return;
+            }
+            TransactionManager.inTransaction(() -> {
+                for (int i = 0; i < names.size(); i++) {
+                    create(ids.get(i), names.get(i));
+                }
+            });
+            imported += names.size();
+            names.clear();
+            ids.clear();
+        }
+
+        // Creates the row under the id, or under the next free id when it is null
+        abstract void create(Integer id, String name) throws Exception;
+    }
+
+    private final class StudentBatch extends NameBatch {
+        StudentBatch(Header header, Map<Integer, String> known) {
+            super(header, "student", known);
+        }
+
+        @Override
+        void create(Integer id, String name) throws Exception {
+            if (id == null) {
+                studentDAO.createStudent(name);
+            } else {
+                studentDAO.createStudent(id, name);
+            }
+        }
+    }
+
+    private final class SubjectBatch extends NameBatch {
+        SubjectBatch(Header header, Map<Integer, String> known) {
+            super(header, "subject", known);
+        }
+
+        @Override
+        void create(Integer id, String name) throws Exception {
+            if (id == null) {
+                subjectDAO.createSubject(name);
+            } else {
+                subjectDAO.createSubject(id, name);
+            }
+        }
+    }
+
+    private final class GradeBatch extends Batch {
+        private final int studentColumn;
+        private final int subjectColumn;
+        private final int gradeColumn;
+        private final KeyIndex students;
+        private final KeyIndex subjects;
+        private final List<GradeDAO.Grade> grades = new ArrayList<>();
+
+        GradeBatch(Header header, KeyIndex students, KeyIndex subjects) {
+            this.studentColumn = header.require("student", "student_id");
+            this.subjectColumn = header.require("subject", "subject_id");
+            this.gradeColumn = header.require("grade", "grade_value");
+            this.students = students;
+            this.subjects = subjects;
+        }
+
+        @Override
+        String add(String[] row) {
+            int studentId = students.resolve(field(row, studentColumn));
+            int subjectId = subjects.resolve(field(row, subjectColumn));
+            String value = field(row, gradeColumn);
+            double grade;
+            try {
+                grade = Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return "invalid grade '" + value + "'";
+            }
+            // Same range the grade dialogs accept
+            if (!(grade >= 0 && grade <= 100)) {
+                return "grade " + value + " is not between 0 and 100";
+            }
+            grades.add(new GradeDAO.Grade(studentId, subjectId, grade));
+            return null;
+        }
+
+        @Override
+        int size() {
+            return grades.size();
+        }
+
+        @Override
+        void flush() throws Exception {
+            if (grades.isEmpty()) {
+                return;
+            }
+            for (int inserted : gradeDAO.createGradeBatch(grades)) {
+                if (inserted > 0) {
+                    imported++;
+                } else {
+                    skipped++;
+                }
+            }
+            grades.clear();
+        }
+    }
+
+    private final class AttendanceBatch extends Batch {
+        private final int studentColumn;
+        private final int subjectColumn;
+        private final int dateColumn;
+        private final int presentColumn;
+        private final KeyIndex students;
+        private final KeyIndex subjects;
+        private final List<AttendanceDAO.Attendance> records = new ArrayList<>();
+
+        AttendanceBatch(Header header, KeyIndex students, KeyIndex subjects) {
+            this.studentColumn = header.require("student", "student_id");
+            this.subjectColumn = header.require("subject", "subject_id");
+            this.dateColumn = header.require("date");
+            this.presentColumn = header.require("present");
+            this.students = students;
+            this.subjects = subjects;
+        }
+
+        @Override
+        String add(String[] row) {
+            int studentId = students.resolve(field(row, studentColumn));
+            int subjectId = subjects.resolve(field(row, subjectColumn));
+            String dateText = field(row, dateColumn);
+            LocalDate date;
+            try {
+                date = LocalDate.parse(dateText);
+            } catch (DateTimeParseException e) {
+                return "invalid date '" + dateText + "', expected YYYY-MM-DD";
+            }
+            Boolean present = parsePresent(field(row, presentColumn));
+            if (present == null) {
+                return "invalid present value '" + field(row, presentColumn) + "'";
+            }
+            records.add(new AttendanceDAO.Attendance(studentId, subjectId, date, present));
+            return null;
+        }
+
+        @Override
+        int size() {
+            return records.size();
+        }
+
+        @Override
+        void flush() throws Exception {
+            if (records.isEmpty()) {
+                return;
+            }
+            for (int inserted : attendanceDAO.createAttendanceBatch(records)) {
+                if (inserted > 0) {
+                    imported++;
+                } else {
+                    skipped++;
+                }
+            }
+            records.clear();
+        }
+
+        private Boolean parsePresent(String value) {
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "true":
+                case "yes":
+                case "y":
+                case "present":
+                case "1":
+                    return Boolean.TRUE;
+                case "false":
+                case "no":
+                case "n":
+                case "absent":
+                case "0":
+                    return Boolean.FALSE;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    // Counts the bytes read from the file, for progress against its size
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Command-line entry point for loading a term's data: pass the table (students, subjects,
+     * grades or attendance) and the CSV file. Import students and subjects before the grades
+     * and attendance that refer to them. Brings the schema up to date first, so an export can be
+     * restored into a new database file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: CsvImporter <students|subjects|grades|attendance> <file.csv>");
+            System.exit(2);
+        }
+        int status = 0;
+        try {
+            Table table = Table.valueOf(args[0].toUpperCase(Locale.ROOT));
+            SchemaMigrator.migrateDatabase();
+            Result result = new CsvImporter().importFile(table, Paths.get(args[1]),
+                    (rows, bytes) -> System.out.printf("  %,d rows read%n", rows));
+            System.out.println(result);
+            result.getRejects().forEach(reject -> System.err.println("Rejected " + reject));
+            if (result.getRejected() > result.getRejects().size()) {
+                System.err.println("... and " + (result.getRejected() - result.getRejects().size()) + " more");
+            }
+        } catch (Exception e) {
+            System.err.println("Import failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+        System.exit(status);
+    }
+}
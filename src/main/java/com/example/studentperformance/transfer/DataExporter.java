@@ -0,0 +1,444 @@
+package com.example.studentperformance.transfer;
+
+import com.example.studentperformance.DatabaseConnection;
+import com.example.studentperformance.dao.AttendanceDAO;
+import com.example.studentperformance.dao.AttendanceDAOImpl;
+import com.example.studentperformance.dao.DAOFactory;
+import com.example.studentperformance.dao.GradeDAO;
+import com.example.studentperformance.dao.GradeDAOImpl;
+import com.example.studentperformance.dao.StudentDAO;
+import com.example.studentperformance.dao.SubjectDAO;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the Students, Subjects, Grades and Attendance tables to one file each in a directory,
+ * as CSV or JSON Lines, optionally gzip-compressed.
+ * <p>
+ * Every table is read on a forward-only DAO cursor and each row is written as soon as it is
+ * read, through a fixed-size buffer, so memory use does not depend on the size of the
+ * database. A table is written to a {@code .part} file that is renamed once it is complete;
+ * when an export fails or is cancelled the unfinished file is deleted and the tables finished
+ * before it are kept.
+ * <p>
+ * The CSV files, compressed or not, use the headers {@link CsvImporter} reads, so an export
+ * can be imported again: students and subjects keep their ids, and grade and attendance rows
+ * refer to them by id. The names written alongside those ids are for reading and are ignored
+ * on import. Import the files in the order written, into a database where those ids are free
+ * or hold the same names; rows the importer's validation refuses, such as a grade outside
+ * 0-100, are reported as rejected rather than restored.
+ */
+public class DataExporter {
+
+    // Rows written between progress reports and cancellation checks
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Format {
+        CSV("CSV", "csv"),
+        JSON_LINES("JSON Lines", "jsonl");
+
+        private final String label;
+        private final String extension;
+
+        Format(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    // Outcome of one export
+    public static class Result {
+        private final List<Path> files;
+        private final long rowsWritten;
+        private final long bytesWritten;
+        private final long elapsedMillis;
+        private final boolean cancelled;
+
+        Result(List<Path> files, long rowsWritten, long bytesWritten, long elapsedMillis, boolean cancelled) {
+            this.files = Collections.unmodifiableList(files);
+            this.rowsWritten = rowsWritten;
+            this.bytesWritten = bytesWritten;
+            this.elapsedMillis = elapsedMillis;
+            this.cancelled = cancelled;
+        }
+
+        // The completed files, in the order they were written
+        public List<Path> getFiles() {
+            return files;
+        }
+
+        public long getRowsWritten() {
+            return rowsWritten;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rowsWritten : rowsWritten * 1000.0 / elapsedMillis;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d rows written to %d files, %,d bytes in %.1f s (%,.0f rows/s)%s",
+                    rowsWritten, files.size(), bytesWritten, elapsedMillis / 1000.0, getRowsPerSecond(),
+                    cancelled ? ", cancelled" : "");
+        }
+    }
+
+    private final StudentDAO studentDAO;
+    private final SubjectDAO subjectDAO;
+    private final GradeDAO gradeDAO;
+    private final AttendanceDAO attendanceDAO;
+
+    public DataExporter() {
+        this(DAOFactory.studentDAO(), DAOFactory.subjectDAO(), new GradeDAOImpl(), new AttendanceDAOImpl());
+    }
+
+    public DataExporter(StudentDAO studentDAO, SubjectDAO subjectDAO, GradeDAO gradeDAO, AttendanceDAO attendanceDAO) {
+        this.studentDAO = studentDAO;
+        this.subjectDAO = subjectDAO;
+        this.gradeDAO = gradeDAO;
+        this.attendanceDAO = attendanceDAO;
+    }
+
+    /**
+     * Rows an export is expected to write, for showing progress as a percentage. Only grades
+     * and attendance are counted; the student and subject tables are small next to them.
+     */
+    public long estimateRows() throws Exception {
+        return (long) gradeDAO.countGrades() + attendanceDAO.countAttendance();
+    }
+
+    /**
+     * Exports every table into the directory, replacing files of the same name; progress
+     * reports rows and bytes written so far across all tables.
+     */
+    public Result exportAll(Path directory, Format format, boolean gzip, TransferProgress progress) throws Exception {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        Export export = new Export(progress);
+        List<Path> files = new ArrayList<>();
+        try {
+            files.add(export.table(directory, "students", format, gzip,
+                    new String[]{"student_id", "name"},
+                    out -> studentDAO.forEachStudent(student -> out.row(
+                            student.getStudentId(), student.getName()))));
+            files.add(export.table(directory, "subjects", format, gzip,
+                    new String[]{"subject_id", "name"},
+                    out -> subjectDAO.forEachSubject(subject -> out.row(
+                            subject.getSubjectId(), subject.getName()))));
+            files.add(export.table(directory, "grades", format, gzip,
+                    new String[]{"grade_id", "student_id", "student_name", "subject_id", "subject_name", "grade"},
+                    out -> gradeDAO.forEachGradeView(grade -> out.row(
+                            grade.getGradeId(), grade.getStudentId(), grade.getStudentName(),
+                            grade.getSubjectId(), grade.getSubjectName(), grade.getGrade()))));
+            files.add(export.table(directory, "attendance", format, gzip,
+                    new String[]{"attendance_id", "student_id", "student_name", "subject_id", "subject_name",
+                            "date", "present"},
+                    out -> attendanceDAO.forEachAttendanceView(record -> out.row(
+                            record.getAttendanceId(), record.getStudentId(), record.getStudentName(),
+                            record.getSubjectId(), record.getSubjectName(), record.getDate(), record.isPresent()))));
+        } catch (CancelledException e) {
+            // Tables finished before the cancellation are kept
+        }
+        progress.update(export.rows, export.bytes);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(files, export.rows, export.bytes, elapsedMillis, export.cancelled);
+    }
+
+    // Reads one table and hands each row to the output
+    private interface TableReader {
+        void readInto(RowOutput out) throws Exception;
+    }
+
+    // Receives the rows of one table; called from inside a DAO cursor, so it cannot throw checked exceptions
+    private interface RowOutput {
+        void row(Object... values);
+    }
+
+    // Totals across the tables of one export
+    private static final class Export {
+        private final TransferProgress progress;
+        private long rows;
+        private long bytes;
+        private boolean cancelled;
+
+        Export(TransferProgress progress) {
+            this.progress = progress;
+        }
+
+        Path table(Path directory, String name, Format format, boolean gzip, String[] columns, TableReader reader)
+                throws Exception {
+            String fileName = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+            Path file = directory.resolve(fileName);
+            Path part = directory.resolve(fileName + ".part");
+            long rowsBefore = rows;
+            long bytesBefore = bytes;
+            boolean completed = false;
+            try {
+                CountingOutputStream counter = new CountingOutputStream(Files.newOutputStream(part));
+                try (counter;
+                     Writer writer = new BufferedWriter(new OutputStreamWriter(
+                             gzip ? new GZIPOutputStream(counter, BUFFER_SIZE) : counter, StandardCharsets.UTF_8),
+                             BUFFER_SIZE)) {
+                    RowWriter rowWriter = format == Format.CSV
+                            ? new CsvRowWriter(writer) : new JsonRowWriter(writer, columns);
+                    rowWriter.header(columns);
+                    try {
+                        reader.readInto(values -> {
+                            try {
+                                rowWriter.row(values);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            if (++rows % PROGRESS_INTERVAL == 0) {
+                                bytes = bytesBefore + counter.getCount();
+                                progress.update(rows, bytes);
+                                if (progress.isCancelled()) {
+                                    cancelled = true;
+                                    throw new CancelledException();
+                                }
+                            }
+                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                }
+                // Closing flushed the buffers and wrote the gzip trailer, so this is the file size
+                bytes = bytesBefore + counter.getCount();
+                completed = true;
+            } finally {
+                if (!completed) {
+                    // Only completed files count towards the result
+                    rows = rowsBefore;
+                    bytes = bytesBefore;
+                    Files.deleteIfExists(part);
+                }
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        }
+    }
+
+    // Thrown from inside a cursor to stop it once the progress asks to cancel
+    private static final class CancelledException extends RuntimeException {
+        CancelledException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private interface RowWriter {
+        void header(String[] columns) throws IOException;
+
+        void row(Object[] values) throws IOException;
+    }
+
+    // RFC 4180: fields holding a comma, quote or line break are quoted, with quotes doubled
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            row(columns);
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values[i];
+                if (value instanceof String) {
+                    writeField((String) value);
+                } else if (value != null) {
+                    writer.write(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            // Surrounding spaces would be trimmed on import, so keep them inside quotes
+            if (!quote && !value.isEmpty()
+                    && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ')) {
+                quote = true;
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    // One JSON object per line, keyed by column name
+    private static final class JsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final String[] keys;
+
+        JsonRowWriter(Writer writer, String[] columns) {
+            this.writer = writer;
+            this.keys = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                keys[i] = "\"" + columns[i] + "\":";
+            }
+        }
+
+        @Override
+        public void header(String[] columns) {
+            // Each object carries its own keys
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            writer.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(keys[i]);
+                Object value = values[i];
+                if (value == null) {
+                    writer.write("null");
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    writer.write(value.toString());
+                } else {
+                    writeString(value.toString());
+                }
+            }
+            writer.write("}\n");
+        }
+
+        private void writeString(String value) throws IOException {
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        writer.write("\\\"");
+                        break;
+                    case '\\':
+                        writer.write("\\\\");
+                        break;
+                    case '\n':
+                        writer.write("\\n");
+                        break;
+                    case '\r':
+                        writer.write("\\r");
+                        break;
+                    case '\t':
+                        writer.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            writer.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            writer.write(c);
+                        }
+                }
+            }
+            writer.write('"');
+        }
+    }
+
+    // Counts the bytes written to the file, after compression
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Command-line entry point for backing up or handing over the data: pass the output
+     * directory, optionally followed by csv or jsonl and gzip.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: DataExporter <directory> [csv|jsonl] [gzip]");
+            System.exit(2);
+        }
+        int status = 0;
+        try {
+            Format format = args.length > 1 && args[1].toLowerCase(Locale.ROOT).equals("jsonl")
+                    ? Format.JSON_LINES : Format.CSV;
+            boolean gzip = args.length > 2 && args[2].equalsIgnoreCase("gzip");
+            Result result = new DataExporter().exportAll(Paths.get(args[0]), format, gzip,
+                    (rows, bytes) -> System.out.printf("  %,d rows written%n", rows));
+            System.out.println(result);
+            result.getFiles().forEach(file -> System.out.println("  " + file));
+        } catch (Exception e) {
+            System.err.println("Export failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+        System.exit(status);
+    }
+}
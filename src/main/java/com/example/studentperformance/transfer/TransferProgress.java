@@ -0,0 +1,17 @@
+package com.example.studentperformance.transfer;
+
+/**
+ * Receives progress from a running import or export and can ask it to stop. Called on the
+ * transfer's own thread, between batches; a transfer that stops early keeps what it has
+ * already committed or written.
+ */
+public interface TransferProgress {
+
+    TransferProgress NONE = (rows, bytes) -> { };
+
+    void update(long rows, long bytes);
+
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -2,7 +2,6 @@ package com.example.studentperformance.ui;
 
 import com.example.studentperformance.DatabaseConnection;
 import com.example.studentperformance.dao.*;
-import com.example.studentperformance.dao.AttendanceDAO.Attendance;
 import com.example.studentperformance.dao.StudentDAO.Student;
 import com.example.studentperformance.dao.SubjectDAO.Subject;
 
@@ -18,10 +17,8 @@ import java.sql.Connection;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class AttendanceReport extends JFrame {
     // Constants for styling - matching MainUI
@@ -44,7 +41,8 @@ public class AttendanceReport extends JFrame {
     private JLabel statusLabel;
 
     // Data for the chart
-    private Map<String, List<Double>> attendanceData;
+    // Per-day attendance percentage for each line, -1 where there is no data
+    private Map<String, double[]> attendanceData;
     private List<String> dateLabels;
     private Integer selectedStudentId = -1; // -1 represents "All Students"
     private String selectedPeriod = "Last 30 Days";
@@ -87,14 +85,9 @@ public class AttendanceReport extends JFrame {
         // Initialize DAOs
         try {
             debug("Initializing DAOs...");
-            Connection conn = DatabaseConnection.getConnection();
-            if (conn == null) {
-                throw new Exception("Database connection is null");
-            }
-
-            studentDAO = new StudentDAOImpl(conn);
-            attendanceDAO = new AttendanceDAOImpl(conn);
-            subjectDAO = new SubjectDAOImpl(conn);
+            studentDAO = DAOFactory.studentDAO();
+            attendanceDAO = new AttendanceDAOImpl();
+            subjectDAO = DAOFactory.subjectDAO();
             debug("DAOs initialized successfully");
         } catch (Exception e) {
             debug("Error initializing database connection: " + e.getMessage());
@@ -116,8 +109,7 @@ public class AttendanceReport extends JFrame {
     }
 
     private void testDatabaseConnection() {
-        try {
-            Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection()) {
             if (conn != null && !conn.isClosed()) {
                 debug("Database connection successful!");
             } else {
@@ -340,12 +332,12 @@ public class AttendanceReport extends JFrame {
         StringBuilder info = new StringBuilder();
         info.append("Database Connection: ");
 
-        try {
-            Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getConnection()) {
             info.append(conn != null && !conn.isClosed() ? "OK" : "FAILED").append("\n");
         } catch (Exception e) {
             info.append("ERROR: ").append(e.getMessage()).append("\n");
         }
+        info.append("Connection Pool: ").append(DatabaseConnection.getPoolStats()).append("\n");
 
         info.append("\nDAO Status:\n");
         info.append("StudentDAO: ").append(studentDAO != null ? "Initialized" : "NULL").append("\n");
@@ -361,9 +353,9 @@ public class AttendanceReport extends JFrame {
 
         if (attendanceData != null && !attendanceData.isEmpty()) {
             info.append("\nAttendance Data Contents:\n");
-            for (Map.Entry<String, List<Double>> entry : attendanceData.entrySet()) {
+            for (Map.Entry<String, double[]> entry : attendanceData.entrySet()) {
                 info.append(entry.getKey()).append(": ")
-                        .append(entry.getValue().size()).append(" records\n");
+                        .append(entry.getValue().length).append(" days\n");
             }
         }
 
@@ -415,8 +407,8 @@ public class AttendanceReport extends JFrame {
 
                 int line = 120;
                 if (attendanceData != null) {
-                    for (Map.Entry<String, List<Double>> entry : attendanceData.entrySet()) {
-                        g2.drawString(entry.getKey() + ": " + entry.getValue().size() + " data points", 50, line);
+                    for (Map.Entry<String, double[]> entry : attendanceData.entrySet()) {
+                        g2.drawString(entry.getKey() + ": " + entry.getValue().length + " data points", 50, line);
                         line += 20;
                     }
                 }
@@ -513,15 +505,15 @@ public class AttendanceReport extends JFrame {
         }
 
         // Prepare entries list for indexed iteration
-        List<Map.Entry<String, List<Double>>> entries = new ArrayList<>(attendanceData.entrySet());
+        List<Map.Entry<String, double[]>> entries = new ArrayList<>(attendanceData.entrySet());
 
         // Draw data lines and legend for each dataset
         boolean dataDrawn = false;
         for (int idx = 0; idx < entries.size(); idx++) {
-            Map.Entry<String, List<Double>> entry = entries.get(idx);
+            Map.Entry<String, double[]> entry = entries.get(idx);
             String student = entry.getKey();
-            List<Double> data = entry.getValue();
-            if (data.isEmpty()) continue;
+            double[] data = entry.getValue();
+            if (data.length == 0) continue;
 
             // Determine colors
             Color lineColor = LINE_COLOR;
@@ -536,8 +528,8 @@ public class AttendanceReport extends JFrame {
             boolean first = true;
             boolean anyValidPoints = false;
 
-            for (int i = 0; i < Math.min(data.size(), numDates); i++) {
-                double value = data.get(i);
+            for (int i = 0; i < Math.min(data.length, numDates); i++) {
+                double value = data[i];
                 if (value < 0) continue;
                 anyValidPoints = true;
 
@@ -699,58 +691,46 @@ public class AttendanceReport extends JFrame {
 
             debug("Generated " + dateLabels.size() + " date labels");
 
-            // Load attendance data
-            List<Attendance> allAttendance = attendanceDAO.getAllAttendance();
-            debug("Retrieved " + allAttendance.size() + " attendance records from database");
-
-            // Filter attendance records based on selected criteria
-            List<Attendance> filteredAttendance = allAttendance.stream()
-                    .filter(a -> a.getDate().isAfter(startDate.minusDays(1)) && !a.getDate().isAfter(endDate))
-                    .filter(a -> selectedStudentId == -1 || a.getStudentId().equals(selectedStudentId))
-                    .filter(a -> selectedSubjectId == -1 || a.getSubjectId().equals(selectedSubjectId))
-                    .collect(Collectors.toList());
-
-            debug("Filtered to " + filteredAttendance.size() + " relevant attendance records");
-
-            // Process attendance data
-            attendanceData = new HashMap<>();
-
-            if (selectedStudentId == -1) {
-                // For "All Students", group by student
-                Map<Integer, String> studentNames = new HashMap<>();
-                for (Student student : studentDAO.getAllStudents()) {
-                    studentNames.put(student.getStudentId(), student.getName());
-                }
-
-                // Group attendance by student
-                Map<Integer, List<Attendance>> attendanceByStudent = filteredAttendance.stream()
-                        .collect(Collectors.groupingBy(Attendance::getStudentId));
-
-                // Process each student's attendance
-                for (Map.Entry<Integer, List<Attendance>> entry : attendanceByStudent.entrySet()) {
-                    int studentId = entry.getKey();
-                    List<Attendance> studentAttendance = entry.getValue();
-                    String studentName = studentNames.getOrDefault(studentId, "Student " + studentId);
-
-                    List<Double> attendancePercentages = calculateAttendancePercentages(studentAttendance, startDate, endDate);
-                    attendanceData.put(studentName, attendancePercentages);
-                }
-            } else {
-                // For a specific student, process their attendance
-                String studentName = "";
-                for (int i = 0; i < studentComboBox.getItemCount(); i++) {
-                    ComboItem<Integer> item = (ComboItem<Integer>) studentComboBox.getItemAt(i);
-                    if (item.getValue().equals(selectedStudentId)) {
-                        studentName = item.toString();
-                        break;
-                    }
-                }
-
-                List<Double> attendancePercentages = calculateAttendancePercentages(filteredAttendance, startDate, endDate);
-                attendanceData.put(studentName, attendancePercentages);
+            // Names for the chart legend, from the already loaded combo box
+            Map<Integer, String> studentNames = new HashMap<>();
+            for (int i = 0; i < studentComboBox.getItemCount(); i++) {
+                ComboItem<Integer> item = studentComboBox.getItemAt(i);
+                studentNames.put(item.getValue(), item.toString());
             }
 
-
+            // One grouped query; each (student, day) row lands straight in that student's day array
+            int days = dateLabels.size();
+            long firstDay = startDate.toEpochDay();
+            Map<String, double[]> data = new LinkedHashMap<>();
+            attendanceDAO.rollupDaily(startDate, endDate,
+                    selectedStudentId == -1 ? null : selectedStudentId,
+                    selectedSubjectId == -1 ? null : selectedSubjectId,
+                    new AttendanceDAO.DailyRollupConsumer() {
+                        private int currentStudent = Integer.MIN_VALUE;
+                        private double[] percentages;
+
+                        @Override
+                        public void accept(int studentId, long epochDay, int present, int total) {
+                            // Rows arrive ordered by student, so a new array is only needed when it changes
+                            if (studentId != currentStudent) {
+                                currentStudent = studentId;
+                                percentages = new double[days];
+                                Arrays.fill(percentages, -1.0); // -1 marks days without records
+                                String name = studentNames.get(studentId);
+                                data.put(name != null ? name : "Student " + studentId, percentages);
+                            }
+                            percentages[(int) (epochDay - firstDay)] = present * 100.0 / total;
+                        }
+                    });
+            debug("Built attendance lines for " + data.size() + " students");
+
+            // A single selected student keeps a (flat) line even with no records
+            if (selectedStudentId != -1 && data.isEmpty()) {
+                double[] empty = new double[days];
+                Arrays.fill(empty, -1.0);
+                data.put(studentNames.getOrDefault(selectedStudentId, ""), empty);
+            }
+            attendanceData = data;
 
             debug("Attendance data processed successfully");
         } catch (Exception e) {
@@ -771,45 +751,6 @@ public class AttendanceReport extends JFrame {
         }
     }
 
-    private List<Double> calculateAttendancePercentages(List<Attendance> attendanceRecords, LocalDate startDate, LocalDate endDate) {
-        // Initialize result list with zeros for each day
-        long daysBetween = ChronoUnit.DAYS.between(startDate, endDate) + 1; // Include end date
-        List<Double> percentages = new ArrayList<>(Collections.nCopies((int) daysBetween, 0.0));
-
-        // Count total records and present records for each day
-        Map<LocalDate, Integer> totalRecords = new HashMap<>();
-        Map<LocalDate, Integer> presentRecords = new HashMap<>();
-
-        for (Attendance record : attendanceRecords) {
-            LocalDate date = record.getDate();
-            if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
-                totalRecords.put(date, totalRecords.getOrDefault(date, 0) + 1);
-                if (record.isPresent()) {
-                    presentRecords.put(date, presentRecords.getOrDefault(date, 0) + 1);
-                }
-            }
-        }
-
-        // Calculate percentages for days with records
-        for (int i = 0; i < daysBetween; i++) {
-            LocalDate currentDate = startDate.plusDays(i);
-            int total = totalRecords.getOrDefault(currentDate, 0);
-
-            if (total > 0) {
-                int present = presentRecords.getOrDefault(currentDate, 0);
-                double percentage = (double) present / total * 100.0;
-                percentages.set(i, percentage);
-            } else {
-                // If no records for this date, mark as -1 (missing data)
-                percentages.set(i, -1.0);
-            }
-        }
-
-        return percentages;
-    }
-
-
-
     public static void main(String[] args) {
         try {
             // Set look and feel to the system look and feel
@@ -0,0 +1,142 @@
+package com.example.studentperformance.ui;
+
+import com.example.studentperformance.QueryCancellation;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs search-as-you-type queries off the Event Dispatch Thread.
+ * <p>
+ * Keystrokes restart a short timer, so a query only starts once typing pauses. Starting a
+ * new query cancels the one still running: its worker thread is interrupted and the SQL
+ * statement it is executing is cancelled through {@link QueryCancellation}, so the database
+ * stops working on it too. A generation counter makes sure only the result of the newest query ever reaches the
+ * table, even if an older one finishes later. All methods must be called on the EDT.
+ *
+ * @param <T> the result produced by the query, typically a list of rows
+ */
+public class DebouncedSearch<T> {
+
+    public static final int DEFAULT_DELAY_MILLIS = 250;
+
+    // The query itself; runs on a background thread and must not touch Swing components
+    public interface Query<T> {
+        T run(String term) throws Exception;
+    }
+
+    private final Query<T> query;
+    private final BiConsumer<String, T> onResult;
+    private final Consumer<Exception> onError;
+    private final Timer debounceTimer;
+    private Consumer<String> onStart = term -> { };
+
+    private String pendingTerm = "";
+    private long generation;
+    private SwingWorker<T, Void> current;
+    private QueryCancellation currentQueries;
+
+    public DebouncedSearch(Query<T> query, BiConsumer<String, T> onResult, Consumer<Exception> onError) {
+        this(DEFAULT_DELAY_MILLIS, query, onResult, onError);
+    }
+
+    public DebouncedSearch(int delayMillis, Query<T> query, BiConsumer<String, T> onResult,
+                           Consumer<Exception> onError) {
+        this.query = query;
+        this.onResult = onResult;
+        this.onError = onError;
+        this.debounceTimer = new Timer(delayMillis, e -> start(pendingTerm));
+        this.debounceTimer.setRepeats(false);
+    }
+
+    // Called on the EDT whenever a query is about to start, e.g. to update a status label
+    public void setOnStart(Consumer<String> onStart) {
+        this.onStart = onStart;
+    }
+
+    // Searches as the user types in the given field
+    public void attachTo(JTextField field) {
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                schedule(field.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                schedule(field.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                schedule(field.getText());
+            }
+        });
+    }
+
+    // Waits for typing to pause before searching
+    public void schedule(String term) {
+        pendingTerm = term;
+        debounceTimer.restart();
+    }
+
+    // Searches straight away, e.g. when the Search button is pressed
+    public void runNow(String term) {
+        debounceTimer.stop();
+        start(term);
+    }
+
+    // Drops any pending or running search; its result will never be published
+    public void cancel() {
+        debounceTimer.stop();
+        generation++;
+        if (current != null) {
+            current.cancel(true);
+            currentQueries.cancel();
+            current = null;
+            currentQueries = null;
+        }
+    }
+
+    private void start(String term) {
+        cancel();
+        long searchGeneration = generation;
+        onStart.accept(term);
+
+        QueryCancellation queries = new QueryCancellation();
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return queries.run(() -> query.run(term));
+            }
+
+            @Override
+            protected void done() {
+                // A newer search has started since; its result is the one that counts
+                if (isCancelled() || searchGeneration != generation) {
+                    return;
+                }
+                current = null;
+                currentQueries = null;
+                try {
+                    onResult.accept(term, get());
+                } catch (CancellationException e) {
+                    // Cancelled after completing; nothing to show
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    onError.accept(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+                }
+            }
+        };
+        current = worker;
+        currentQueries = queries;
+        worker.execute();
+    }
+}
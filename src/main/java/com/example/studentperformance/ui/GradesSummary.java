@@ -1,10 +1,9 @@
 package com.example.studentperformance.ui;
 
-import com.example.studentperformance.DatabaseConnection;
+import com.example.studentperformance.analytics.GradeColumns;
+import com.example.studentperformance.analytics.GradeStatistics;
 import com.example.studentperformance.dao.*;
 import com.example.studentperformance.dao.GradeDAOImpl;
-import com.example.studentperformance.dao.StudentDAOImpl;
-import com.example.studentperformance.dao.SubjectDAOImpl;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -12,10 +11,11 @@ import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.sql.Connection;
 import java.util.*;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -44,7 +44,6 @@ public class GradesSummary extends JFrame {
     private static final Font LABEL_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     private static final Font AXIS_FONT = new Font("Segoe UI", Font.PLAIN, 12);
 
-    private Connection dbConnection;
     private GradeDAO gradeDAO;
     private StudentDAO studentDAO;
     private SubjectDAO subjectDAO;
@@ -65,12 +64,48 @@ public class GradesSummary extends JFrame {
     // For subject panel
     private JComboBox<String> gradeRangeSelector;
 
+    private JProgressBar progressBar;
+
+    // Data shared by all four charts, loaded once per refresh off the EDT
+    private SummaryData data;
+    private int refreshGeneration;
+    private int chartsReady;
+    private boolean updatingSelectors;
+    private int distributionRequest;
+    private static final int CHART_COUNT = 4;
+
+    // Lower edges of the D, C, B and A letter bands, for the SQL histogram
+    private static final double[] LETTER_BAND_EDGES = {60, 70, 80, 90};
+
+    // Builds a chart off the EDT; may query the database
+    private interface ChartBuilder {
+        JFreeChart build() throws Exception;
+    }
+
+    // Immutable snapshot of what the student and subject charts need
+    private static class SummaryData {
+        private final List<StudentDAO.Student> students;
+        private final List<SubjectDAO.Subject> subjects;
+        private final GradeStatistics statistics;
+
+        SummaryData(List<StudentDAO.Student> students, List<SubjectDAO.Subject> subjects, GradeDAO gradeDAO)
+                throws Exception {
+            this.students = students;
+            this.subjects = subjects;
+            // Every student's grade in every subject needs the whole grade table; the columns are
+            // dropped once aggregated. The overview and distribution charts query SQLite instead.
+            GradeColumns grades = GradeColumns.load(gradeDAO);
+            this.statistics = GradeStatistics.compute(
+                    students.stream().mapToInt(StudentDAO.Student::getStudentId).toArray(),
+                    subjects.stream().mapToInt(SubjectDAO.Subject::getSubjectId).toArray(),
+                    grades);
+        }
+    }
+
     /**
-     * Constructor that initializes the analytics dashboard with just a database connection
+     * Constructor that initializes the analytics dashboard; DAOs borrow pooled connections as needed
      */
     public GradesSummary() {
-        this.dbConnection = DatabaseConnection.getConnection();
-
         // Set look and feel
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -114,10 +149,10 @@ public class GradesSummary extends JFrame {
     private void initializeDAOs() {
         try {
             // Assuming implementation classes exist with these names and constructors
-            gradeDAO = new GradeDAOImpl(dbConnection);
-            studentDAO = new StudentDAOImpl(dbConnection);
-            subjectDAO = new SubjectDAOImpl(dbConnection);
-            attendanceDAO = new AttendanceDAOImpl(dbConnection);
+            gradeDAO = new GradeDAOImpl();
+            studentDAO = DAOFactory.studentDAO();
+            subjectDAO = DAOFactory.subjectDAO();
+            attendanceDAO = new AttendanceDAOImpl();
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this,
                     "Error initializing data access: " + e.getMessage(),
@@ -164,6 +199,14 @@ public class GradesSummary extends JFrame {
         tabbedPane.addTab("Grade Distribution", distributionPanel);
 
         add(tabbedPane);
+
+        // Shows load progress while the charts are being built in the background
+        progressBar = new JProgressBar(0, CHART_COUNT);
+        progressBar.setStringPainted(true);
+        progressBar.setFont(AXIS_FONT);
+        progressBar.setForeground(PRIMARY_COLOR);
+        progressBar.setVisible(false);
+        add(progressBar, BorderLayout.SOUTH);
     }
 
     private void setupOverviewPanel() {
@@ -185,13 +228,7 @@ public class GradesSummary extends JFrame {
         refreshBtn.setFocusPainted(false);
         refreshBtn.setBorder(BorderFactory.createEmptyBorder(8, 15, 8, 15));
 
-        refreshBtn.addActionListener(e -> {
-            try {
-                updateOverviewChart();
-            } catch (Exception ex) {
-                handleError("Error refreshing overview chart", ex);
-            }
-        });
+        refreshBtn.addActionListener(e -> refreshData());
 
         controlPanel.add(refreshBtn);
         overviewPanel.add(controlPanel, BorderLayout.NORTH);
@@ -321,26 +358,123 @@ public class GradesSummary extends JFrame {
         distributionPanel.add(distributionControlPanel, BorderLayout.NORTH);
     }
 
+    /**
+     * Reloads the data and rebuilds every chart without blocking the EDT: one snapshot is read
+     * in the background, then the four charts are built in parallel and each is shown as soon
+     * as it is ready.
+     */
     private void refreshData() {
-        try {
-            // Load students and subjects for dropdowns
-            updateSelectors();
-
-            // Update all charts
-            updateOverviewChart();
-            updateStudentChart();
-            updateSubjectChart();
-            updateDistributionChart();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                    "Error loading data: " + e.getMessage(),
-                    "Data Error",
-                    JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+        int generation = ++refreshGeneration;
+        chartsReady = 0;
+        progressBar.setIndeterminate(true);
+        progressBar.setString("Loading data...");
+        progressBar.setVisible(true);
+
+        new SwingWorker<SummaryData, Void>() {
+            @Override
+            protected SummaryData doInBackground() throws Exception {
+                return new SummaryData(studentDAO.getAllStudents(), subjectDAO.getAllSubjects(), gradeDAO);
+            }
+
+            @Override
+            protected void done() {
+                if (generation != refreshGeneration) {
+                    return; // A newer refresh has started
+                }
+                try {
+                    data = get();
+                    updateSelectors();
+                    buildChartsInParallel(generation);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    progressBar.setVisible(false);
+                    Throwable cause = e.getCause();
+                    JOptionPane.showMessageDialog(GradesSummary.this,
+                            "Error loading data: " + cause.getMessage(),
+                            "Data Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
+    private void buildChartsInParallel(int generation) {
+        progressBar.setIndeterminate(false);
+        progressBar.setValue(0);
+        progressBar.setString("Building charts...");
+
+        // Read the selections here on the EDT; the builders run on pool threads
+        SummaryData snapshot = data;
+        StudentDAO.Student student = (StudentDAO.Student) studentSelector.getSelectedItem();
+        SubjectDAO.Subject subject = (SubjectDAO.Subject) subjectSelector.getSelectedItem();
+        String gradeRange = (String) gradeRangeSelector.getSelectedItem();
+        SubjectDAO.Subject distributionSubject = (SubjectDAO.Subject) distributionSubjectSelector.getSelectedItem();
+        String viewType = (String) distributionViewSelector.getSelectedItem();
+
+        buildChartAsync(generation, overviewPanel, "overview", this::buildOverviewChart);
+        buildChartAsync(generation, studentPanel, "student", () -> buildStudentChart(snapshot, student));
+        buildChartAsync(generation, subjectPanel, "subject", () -> buildSubjectChart(snapshot, subject, gradeRange));
+        buildChartAsync(generation, distributionPanel, "distribution",
+                () -> buildDistributionChart(distributionSubject, viewType));
+    }
+
+    private void buildChartAsync(int generation, JPanel panel, String name, ChartBuilder builder) {
+        runChartBuilder(builder).whenComplete((chart, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation != refreshGeneration) {
+                return;
+            }
+            if (error != null) {
+                handleError("Error updating " + name + " chart", unwrap(error));
+            } else if (chart != null) {
+                showChart(panel, chart);
+            }
+            chartsReady++;
+            progressBar.setValue(chartsReady);
+            progressBar.setString("Charts ready: " + chartsReady + " of " + CHART_COUNT);
+            if (chartsReady == CHART_COUNT) {
+                progressBar.setVisible(false);
+            }
+        }));
+    }
+
+    private static CompletableFuture<JFreeChart> runChartBuilder(ChartBuilder builder) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return builder.build();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private static Exception unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception ? (Exception) cause : new Exception(cause);
+    }
+
+    // Replaces whatever chart the panel currently shows
+    private void showChart(JPanel panel, JFreeChart chart) {
+        ChartPanel chartPanel = new ChartPanel(chart);
+        chartPanel.setPreferredSize(new Dimension(800, 500));
+        chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        for (Component comp : panel.getComponents()) {
+            if (comp instanceof ChartPanel) {
+                panel.remove(comp);
+            }
         }
+
+        panel.add(chartPanel, BorderLayout.CENTER);
+        panel.revalidate();
+        panel.repaint();
     }
 
-    private void updateSelectors() throws Exception {
+    private void updateSelectors() {
+        // The charts are rebuilt together once the selectors are filled
+        updatingSelectors = true;
+
         // Clear existing items
         studentSelector.removeAllItems();
         subjectSelector.removeAllItems();
@@ -350,14 +484,12 @@ public class GradesSummary extends JFrame {
         distributionSubjectSelector.addItem(null);
 
         // Add students to selector
-        List<StudentDAO.Student> students = studentDAO.getAllStudents();
-        for (StudentDAO.Student student : students) {
+        for (StudentDAO.Student student : data.students) {
             studentSelector.addItem(student);
         }
 
         // Add subjects to selector
-        List<SubjectDAO.Subject> subjects = subjectDAO.getAllSubjects();
-        for (SubjectDAO.Subject subject : subjects) {
+        for (SubjectDAO.Subject subject : data.subjects) {
             subjectSelector.addItem(subject);
             distributionSubjectSelector.addItem(subject);
         }
@@ -418,29 +550,15 @@ public class GradesSummary extends JFrame {
                 return c;
             }
         });
-    }
 
-    private void updateOverviewChart() throws Exception {
-        // Calculate average grades by subject
-        Map<Integer, String> subjectIdToName = new HashMap<>();
-        for (SubjectDAO.Subject subject : subjectDAO.getAllSubjects()) {
-            subjectIdToName.put(subject.getSubjectId(), subject.getName());
-        }
-
-        Map<Integer, List<Double>> gradesBySubject = new HashMap<>();
-        for (GradeDAO.Grade grade : gradeDAO.getAllGrades()) {
-            if (!gradesBySubject.containsKey(grade.getSubjectId())) {
-                gradesBySubject.put(grade.getSubjectId(), new ArrayList<>());
-            }
-            gradesBySubject.get(grade.getSubjectId()).add(grade.getGrade());
-        }
+        updatingSelectors = false;
+    }
 
+    private JFreeChart buildOverviewChart() throws Exception {
+        // Average grades by subject, computed by SQLite: one row per subject
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        for (Map.Entry<Integer, List<Double>> entry : gradesBySubject.entrySet()) {
-            Integer subjectId = entry.getKey();
-            List<Double> grades = entry.getValue();
-            double average = grades.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-            dataset.addValue(average, "Average Grade", subjectIdToName.getOrDefault(subjectId, "Unknown"));
+        for (GradeDAO.SubjectAverage average : gradeDAO.averageBySubject()) {
+            dataset.addValue(average.getAverage(), "Average Grade", average.getSubjectName());
         }
 
         JFreeChart chart = ChartFactory.createBarChart(
@@ -456,273 +574,207 @@ public class GradesSummary extends JFrame {
 
         // Apply custom styling to chart
         styleBarChart(chart, "Average Grades by Subject");
-
-        // Create and add chart panel to overview tab
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 500));
-        chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
-
-        // Remove existing chart if any
-        for (Component comp : overviewPanel.getComponents()) {
-            if (comp instanceof ChartPanel) {
-                overviewPanel.remove(comp);
-            }
-        }
-
-        overviewPanel.add(chartPanel, BorderLayout.CENTER);
-        overviewPanel.revalidate();
-        overviewPanel.repaint();
+        return chart;
     }
 
     private void updateStudentChart() {
+        if (data == null || updatingSelectors) return;
         try {
             StudentDAO.Student selectedStudent = (StudentDAO.Student) studentSelector.getSelectedItem();
-            if (selectedStudent == null) return;
-
-            int studentId = selectedStudent.getStudentId();
-            Map<Integer, String> subjectIdToName = new HashMap<>();
-            for (SubjectDAO.Subject subject : subjectDAO.getAllSubjects()) {
-                subjectIdToName.put(subject.getSubjectId(), subject.getName());
+            JFreeChart chart = buildStudentChart(data, selectedStudent);
+            if (chart != null) {
+                showChart(studentPanel, chart);
             }
+        } catch (Exception e) {
+            handleError("Error updating student chart", e);
+        }
+    }
 
-            // Get all grades for the selected student
-            List<GradeDAO.Grade> studentGrades = new ArrayList<>();
-            for (GradeDAO.Grade grade : gradeDAO.getAllGrades()) {
-                if (grade.getStudentId() == studentId) {
-                    studentGrades.add(grade);
-                }
-            }
-
-            DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-            for (GradeDAO.Grade grade : studentGrades) {
-                dataset.addValue(grade.getGrade(), "Grade",
-                        subjectIdToName.getOrDefault(grade.getSubjectId(), "Unknown"));
-            }
-
-            JFreeChart chart = ChartFactory.createBarChart(
-                    "Grades for " + selectedStudent.getName(),
-                    "Subject",
-                    "Grade",
-                    dataset,
-                    PlotOrientation.VERTICAL,
-                    true,
-                    true,
-                    false
-            );
-
-            // Apply custom styling to chart
-            styleBarChart(chart, "Grades for " + selectedStudent.getName());
+    private JFreeChart buildStudentChart(SummaryData data, StudentDAO.Student selectedStudent) {
+        if (selectedStudent == null) return null;
 
-            ChartPanel chartPanel = new ChartPanel(chart);
-            chartPanel.setPreferredSize(new Dimension(800, 500));
-            chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        int studentId = selectedStudent.getStudentId();
 
-            // Replace the existing chart in the student panel
-            for (Component comp : studentPanel.getComponents()) {
-                if (comp instanceof ChartPanel) {
-                    studentPanel.remove(comp);
-                }
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (SubjectDAO.Subject subject : data.subjects) {
+            double grade = data.statistics.studentGrade(studentId, subject.getSubjectId());
+            if (!Double.isNaN(grade)) {
+                dataset.addValue(grade, "Grade", subject.getName());
             }
-
-            studentPanel.add(chartPanel, BorderLayout.CENTER);
-            studentPanel.revalidate();
-            studentPanel.repaint();
-        } catch (Exception e) {
-            handleError("Error updating student chart", e);
         }
+
+        JFreeChart chart = ChartFactory.createBarChart(
+                "Grades for " + selectedStudent.getName(),
+                "Subject",
+                "Grade",
+                dataset,
+                PlotOrientation.VERTICAL,
+                true,
+                true,
+                false
+        );
+
+        // Apply custom styling to chart
+        styleBarChart(chart, "Grades for " + selectedStudent.getName());
+        return chart;
     }
 
     private void updateSubjectChart() {
+        if (data == null || updatingSelectors) return;
         try {
             SubjectDAO.Subject selectedSubject = (SubjectDAO.Subject) subjectSelector.getSelectedItem();
-            if (selectedSubject == null) return;
-
-            int subjectId = selectedSubject.getSubjectId();
-            Map<Integer, String> studentIdToName = new HashMap<>();
-            for (StudentDAO.Student student : studentDAO.getAllStudents()) {
-                studentIdToName.put(student.getStudentId(), student.getName());
-            }
-
-            // Get all grades for the selected subject
-            List<GradeDAO.Grade> subjectGrades = new ArrayList<>();
-            for (GradeDAO.Grade grade : gradeDAO.getAllGrades()) {
-                if (grade.getSubjectId() == subjectId) {
-                    subjectGrades.add(grade);
-                }
-            }
-
-            // Apply grade range filter
             String selectedGradeRange = (String) gradeRangeSelector.getSelectedItem();
-            List<GradeDAO.Grade> filteredGrades = filterGradesByRange(subjectGrades, selectedGradeRange);
-
-            DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-            for (GradeDAO.Grade grade : filteredGrades) {
-                dataset.addValue(grade.getGrade(), "Grade",
-                        studentIdToName.getOrDefault(grade.getStudentId(), "Unknown"));
+            JFreeChart chart = buildSubjectChart(data, selectedSubject, selectedGradeRange);
+            if (chart != null) {
+                showChart(subjectPanel, chart);
             }
+        } catch (Exception e) {
+            handleError("Error updating subject chart", e);
+        }
+    }
 
-            // Calculate statistics for filtered grades
-            double average = filteredGrades.stream()
-                    .mapToDouble(GradeDAO.Grade::getGrade)
-                    .average()
-                    .orElse(0.0);
-
-            double highest = filteredGrades.stream()
-                    .mapToDouble(GradeDAO.Grade::getGrade)
-                    .max()
-                    .orElse(0.0);
-
-            double lowest = filteredGrades.stream()
-                    .mapToDouble(GradeDAO.Grade::getGrade)
-                    .min()
-                    .orElse(0.0);
-
-            JFreeChart chart = ChartFactory.createBarChart(
-                    "Grades for " + selectedSubject.getName() +
-                            " (" + selectedGradeRange + ")",
-                    "Student",
-                    "Grade",
-                    dataset,
-                    PlotOrientation.VERTICAL,
-                    true,
-                    true,
-                    false
-            );
+    private JFreeChart buildSubjectChart(SummaryData data, SubjectDAO.Subject selectedSubject, String selectedGradeRange) {
+        if (selectedSubject == null) return null;
 
-            // Apply custom styling to chart
-            styleBarChart(chart, "Grades for " + selectedSubject.getName());
+        int subjectId = selectedSubject.getSubjectId();
+        int band = bandOfRange(selectedGradeRange);
+        GradeStatistics statistics = data.statistics;
 
-            // Add statistics as subtitle
-            TextTitle subtitle = new TextTitle(
-                    "Average: " + String.format("%.2f", average) +
-                            " | Highest: " + String.format("%.2f", highest) +
-                            " | Lowest: " + String.format("%.2f", lowest),
-                    new Font("Segoe UI", Font.ITALIC, 14)
-            );
-            subtitle.setPaint(TEXT_COLOR);
-            chart.addSubtitle(subtitle);
+        // Each student's grade in the subject, limited to the selected range
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        for (StudentDAO.Student student : data.students) {
+            double grade = statistics.studentGrade(student.getStudentId(), subjectId);
+            if (!Double.isNaN(grade) && (band == GradeStatistics.ALL_BANDS || GradeStatistics.bandOf(grade) == band)) {
+                dataset.addValue(grade, "Grade", student.getName());
+            }
+        }
 
-            ChartPanel chartPanel = new ChartPanel(chart);
-            chartPanel.setPreferredSize(new Dimension(800, 500));
-            chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        // Statistics for the selected range
+        double average = statistics.mean(subjectId, band);
+        double highest = statistics.max(subjectId, band);
+        double lowest = statistics.min(subjectId, band);
 
-            // Replace the existing chart in the subject panel
-            for (Component comp : subjectPanel.getComponents()) {
-                if (comp instanceof ChartPanel) {
-                    subjectPanel.remove(comp);
-                }
-            }
+        JFreeChart chart = ChartFactory.createBarChart(
+                "Grades for " + selectedSubject.getName() +
+                        " (" + selectedGradeRange + ")",
+                "Student",
+                "Grade",
+                dataset,
+                PlotOrientation.VERTICAL,
+                true,
+                true,
+                false
+        );
 
-            subjectPanel.add(chartPanel, BorderLayout.CENTER);
-            subjectPanel.revalidate();
-            subjectPanel.repaint();
-        } catch (Exception e) {
-            handleError("Error updating subject chart", e);
-        }
+        // Apply custom styling to chart
+        styleBarChart(chart, "Grades for " + selectedSubject.getName());
+
+        // Add statistics as subtitle
+        TextTitle subtitle = new TextTitle(
+                "Average: " + String.format("%.2f", average) +
+                        " | Highest: " + String.format("%.2f", highest) +
+                        " | Lowest: " + String.format("%.2f", lowest),
+                new Font("Segoe UI", Font.ITALIC, 14)
+        );
+        subtitle.setPaint(TEXT_COLOR);
+        chart.addSubtitle(subtitle);
+        return chart;
     }
 
     private void updateDistributionChart() {
-        try {
-            // Get selected subject filter (if any)
-            SubjectDAO.Subject selectedSubject = (SubjectDAO.Subject) distributionSubjectSelector.getSelectedItem();
-
-            // Get all grades
-            List<GradeDAO.Grade> allGrades = gradeDAO.getAllGrades();
-
-            // Apply subject filter if selected
-            if (selectedSubject != null) {
-                int subjectId = selectedSubject.getSubjectId();
-                allGrades = allGrades.stream()
-                        .filter(grade -> grade.getSubjectId() == subjectId)
-                        .collect(Collectors.toList());
-            }
-
-            // Create grade ranges (e.g., A, B, C, D, F)
-            Map<String, Integer> gradeCounts = new LinkedHashMap<>(); // LinkedHashMap to maintain order
-            gradeCounts.put("A (90-100)", 0);
-            gradeCounts.put("B (80-89)", 0);
-            gradeCounts.put("C (70-79)", 0);
-            gradeCounts.put("D (60-69)", 0);
-            gradeCounts.put("F (0-59)", 0);
-
-            // Count grades in each range
-            for (GradeDAO.Grade grade : allGrades) {
-                double value = grade.getGrade();
-                if (value >= 90) {
-                    gradeCounts.put("A (90-100)", gradeCounts.get("A (90-100)") + 1);
-                } else if (value >= 80) {
-                    gradeCounts.put("B (80-89)", gradeCounts.get("B (80-89)") + 1);
-                } else if (value >= 70) {
-                    gradeCounts.put("C (70-79)", gradeCounts.get("C (70-79)") + 1);
-                } else if (value >= 60) {
-                    gradeCounts.put("D (60-69)", gradeCounts.get("D (60-69)") + 1);
-                } else {
-                    gradeCounts.put("F (0-59)", gradeCounts.get("F (0-59)") + 1);
-                }
-            }
+        if (data == null || updatingSelectors) return;
+
+        // Get selected subject filter (if any)
+        SubjectDAO.Subject selectedSubject = (SubjectDAO.Subject) distributionSubjectSelector.getSelectedItem();
+        String viewType = (String) distributionViewSelector.getSelectedItem();
+
+        // Queries the database, so build off the EDT and keep only the latest request
+        int request = ++distributionRequest;
+        runChartBuilder(() -> buildDistributionChart(selectedSubject, viewType))
+                .whenComplete((chart, error) -> SwingUtilities.invokeLater(() -> {
+                    if (request != distributionRequest) {
+                        return;
+                    }
+                    if (error != null) {
+                        handleError("Error updating distribution chart", unwrap(error));
+                    } else {
+                        showChart(distributionPanel, chart);
+                    }
+                }));
+    }
 
-            String chartTitle = "Grade Distribution" +
-                    (selectedSubject != null ? " for " + selectedSubject.getName() : "");
+    private JFreeChart buildDistributionChart(SubjectDAO.Subject selectedSubject, String viewType) throws Exception {
+        // Band counts from SQLite, lowest band first
+        int[] buckets = selectedSubject != null
+                ? gradeDAO.histogram(selectedSubject.getSubjectId(), LETTER_BAND_EDGES)
+                : gradeDAO.histogram(LETTER_BAND_EDGES);
 
-            JFreeChart chart;
-            String viewType = (String) distributionViewSelector.getSelectedItem();
+        Map<String, Integer> gradeCounts = new LinkedHashMap<>(); // LinkedHashMap to maintain order
+        for (int band = 0; band < GradeStatistics.BAND_COUNT; band++) {
+            gradeCounts.put(GradeStatistics.bandLabel(band), buckets[GradeStatistics.BAND_COUNT - 1 - band]);
+        }
 
-            if ("Bar Chart".equals(viewType)) {
-                // Create bar chart dataset
-                DefaultCategoryDataset barDataset = new DefaultCategoryDataset();
-                for (Map.Entry<String, Integer> entry : gradeCounts.entrySet()) {
-                    barDataset.addValue(entry.getValue(), "Count", entry.getKey());
-                }
+        // Percentiles give the spread within a single subject
+        GradeDAO.Percentiles percentiles = selectedSubject != null
+                ? gradeDAO.percentiles(selectedSubject.getSubjectId())
+                : null;
 
-                chart = ChartFactory.createBarChart(
-                        chartTitle,
-                        "Grade Range",
-                        "Number of Students",
-                        barDataset,
-                        PlotOrientation.VERTICAL,
-                        true,
-                        true,
-                        false
-                );
-
-                // Apply custom styling to bar chart
-                styleBarChart(chart, chartTitle);
-            } else {
-                // Default to pie chart (includes "Pie Chart" selection)
-                DefaultPieDataset pieDataset = new DefaultPieDataset();
-                for (Map.Entry<String, Integer> entry : gradeCounts.entrySet()) {
-                    pieDataset.setValue(entry.getKey(), entry.getValue());
-                }
+        String chartTitle = "Grade Distribution" +
+                (selectedSubject != null ? " for " + selectedSubject.getName() : "");
 
-                chart = ChartFactory.createPieChart(
-                        chartTitle,
-                        pieDataset,
-                        true,
-                        true,
-                        false
-                );
+        JFreeChart chart;
 
-                // Apply custom styling to pie chart
-                stylePieChart(chart, chartTitle);
+        if ("Bar Chart".equals(viewType)) {
+            // Create bar chart dataset
+            DefaultCategoryDataset barDataset = new DefaultCategoryDataset();
+            for (Map.Entry<String, Integer> entry : gradeCounts.entrySet()) {
+                barDataset.addValue(entry.getValue(), "Count", entry.getKey());
             }
 
-            ChartPanel chartPanel = new ChartPanel(chart);
-            chartPanel.setPreferredSize(new Dimension(800, 500));
-            chartPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+            chart = ChartFactory.createBarChart(
+                    chartTitle,
+                    "Grade Range",
+                    "Number of Students",
+                    barDataset,
+                    PlotOrientation.VERTICAL,
+                    true,
+                    true,
+                    false
+            );
 
-            // Replace existing chart
-            for (Component comp : distributionPanel.getComponents()) {
-                if (comp instanceof ChartPanel) {
-                    distributionPanel.remove(comp);
-                }
+            // Apply custom styling to bar chart
+            styleBarChart(chart, chartTitle);
+        } else {
+            // Default to pie chart (includes "Pie Chart" selection)
+            DefaultPieDataset pieDataset = new DefaultPieDataset();
+            for (Map.Entry<String, Integer> entry : gradeCounts.entrySet()) {
+                pieDataset.setValue(entry.getKey(), entry.getValue());
             }
 
-            distributionPanel.add(chartPanel, BorderLayout.CENTER);
-            distributionPanel.revalidate();
-            distributionPanel.repaint();
-        } catch (Exception e) {
-            handleError("Error updating distribution chart", e);
+            chart = ChartFactory.createPieChart(
+                    chartTitle,
+                    pieDataset,
+                    true,
+                    true,
+                    false
+            );
+
+            // Apply custom styling to pie chart
+            stylePieChart(chart, chartTitle);
+        }
+
+        if (percentiles != null) {
+            TextTitle subtitle = new TextTitle(
+                    "25th: " + String.format("%.2f", percentiles.getP25()) +
+                            " | Median: " + String.format("%.2f", percentiles.getMedian()) +
+                            " | 75th: " + String.format("%.2f", percentiles.getP75()) +
+                            " | 90th: " + String.format("%.2f", percentiles.getP90()),
+                    new Font("Segoe UI", Font.ITALIC, 14)
+            );
+            subtitle.setPaint(TEXT_COLOR);
+            chart.addSubtitle(subtitle);
         }
+        return chart;
     }
 
     // Helper method to style bar charts consistently
@@ -801,33 +853,20 @@ public class GradesSummary extends JFrame {
         chart.getLegend().setItemPaint(TEXT_COLOR);
     }
 
-    // Helper method to filter grades by grade range
-    private List<GradeDAO.Grade> filterGradesByRange(List<GradeDAO.Grade> grades, String gradeRange) {
-        if ("All Grades".equals(gradeRange)) {
-            return grades;
-        } else if ("Above 90".equals(gradeRange)) {
-            return grades.stream()
-                    .filter(grade -> grade.getGrade() >= 90)
-                    .collect(Collectors.toList());
+    // Maps a grade range selection onto a letter band of GradeStatistics
+    private static int bandOfRange(String gradeRange) {
+        if ("Above 90".equals(gradeRange)) {
+            return 0;
         } else if ("80-89".equals(gradeRange)) {
-            return grades.stream()
-                    .filter(grade -> grade.getGrade() >= 80 && grade.getGrade() < 90)
-                    .collect(Collectors.toList());
+            return 1;
         } else if ("70-79".equals(gradeRange)) {
-            return grades.stream()
-                    .filter(grade -> grade.getGrade() >= 70 && grade.getGrade() < 80)
-                    .collect(Collectors.toList());
+            return 2;
         } else if ("60-69".equals(gradeRange)) {
-            return grades.stream()
-                    .filter(grade -> grade.getGrade() >= 60 && grade.getGrade() < 70)
-                    .collect(Collectors.toList());
+            return 3;
         } else if ("Below 60".equals(gradeRange)) {
-            return grades.stream()
-                    .filter(grade -> grade.getGrade() < 60)
-                    .collect(Collectors.toList());
+            return 4;
         }
-
-        return grades; // Default to all grades
+        return GradeStatistics.ALL_BANDS; // Default to all grades
     }
 
     private void handleError(String message, Exception e) {
@@ -842,9 +881,6 @@ public class GradesSummary extends JFrame {
         // This method provided for testing
         SwingUtilities.invokeLater(() -> {
             try {
-                // Create a sample connection - this would be replaced with actual DB connection
-                Connection conn = null; // Replace with real connection
-
                 GradesSummary app = new GradesSummary();
                 app.setVisible(true);
             } catch (Exception e) {
@@ -0,0 +1,160 @@
+package com.example.studentperformance.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Fills a scrollable table one page at a time as the user scrolls towards the bottom.
+ * <p>
+ * Pages come from a keyset query: the loader is handed the last row of the previous page
+ * (null for the first) and returns the rows after it, so a page deep into a large table
+ * costs the same as the first one. Loads run on a background thread, one at a time. A
+ * generation counter makes sure a page started before {@link #reset} or {@link #stop} never
+ * reaches the table. All methods must be called on the EDT.
+ *
+ * @param <T> the row type returned by the DAO
+ */
+public class InfiniteScroll<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    // Runs on a background thread and must not touch Swing components
+    public interface PageLoader<T> {
+        List<T> load(T last, int limit) throws Exception;
+    }
+
+    // Receives each page on the EDT; the first page after a reset replaces the table contents
+    public interface PageConsumer<T> {
+        void accept(List<T> page, boolean firstPage);
+    }
+
+    private final JScrollPane scrollPane;
+    private final int pageSize;
+    private final PageLoader<T> loader;
+    private final PageConsumer<T> onPage;
+    private final Consumer<Exception> onError;
+
+    private long generation;
+    private SwingWorker<List<T>, Void> current;
+    private T last;
+    private boolean firstPage;
+    private boolean active;
+    private boolean exhausted;
+
+    public InfiniteScroll(JScrollPane scrollPane, PageLoader<T> loader, PageConsumer<T> onPage,
+                          Consumer<Exception> onError) {
+        this(scrollPane, DEFAULT_PAGE_SIZE, loader, onPage, onError);
+    }
+
+    public InfiniteScroll(JScrollPane scrollPane, int pageSize, PageLoader<T> loader, PageConsumer<T> onPage,
+                          Consumer<Exception> onError) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        this.scrollPane = scrollPane;
+        this.pageSize = pageSize;
+        this.loader = loader;
+        this.onPage = onPage;
+        this.onError = onError;
+
+        // Fires on scrolling, on resizing and whenever appended rows make the view taller
+        scrollPane.getViewport().addChangeListener(e -> loadMoreIfNeeded());
+    }
+
+    // Starts over from the first page, e.g. on opening the window or after an edit
+    public void reset() {
+        stop();
+        last = null;
+        firstPage = true;
+        exhausted = false;
+        active = true;
+        loadNext();
+    }
+
+    // Stops paging, e.g. while search results occupy the table; reset() resumes it
+    public void stop() {
+        generation++;
+        active = false;
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    public boolean isLoading() {
+        return current != null;
+    }
+
+    // True while paging and the loader has not yet returned a short page, i.e. more rows may follow
+    public boolean hasMore() {
+        return active && !exhausted;
+    }
+
+    // Loads the next page when the visible rows come within a screenful of the end
+    private void loadMoreIfNeeded() {
+        if (!active || exhausted || current != null) {
+            return;
+        }
+        JViewport viewport = scrollPane.getViewport();
+        Component view = viewport.getView();
+        Rectangle visible = viewport.getViewRect();
+        // Not laid out yet, e.g. while the window is still being built; it fires again once it is
+        if (view == null || visible.height == 0) {
+            return;
+        }
+        int remaining = view.getHeight() - (visible.y + visible.height);
+        if (remaining <= visible.height) {
+            loadNext();
+        }
+    }
+
+    private void loadNext() {
+        long pageGeneration = generation;
+        T after = last;
+
+        SwingWorker<List<T>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<T> doInBackground() throws Exception {
+                return loader.load(after, pageSize);
+            }
+
+            @Override
+            protected void done() {
+                // Reset or stopped since; this page belongs to a table that is gone
+                if (isCancelled() || pageGeneration != generation) {
+                    return;
+                }
+                current = null;
+                List<T> page;
+                try {
+                    page = get();
+                } catch (CancellationException e) {
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    active = false;
+                    Throwable cause = e.getCause();
+                    onError.accept(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+                    return;
+                }
+                if (!page.isEmpty()) {
+                    last = page.get(page.size() - 1);
+                }
+                exhausted = page.size() < pageSize;
+                boolean replace = firstPage;
+                firstPage = false;
+                onPage.accept(page, replace);
+                // Keep going until the viewport is full; no scroll event comes while it is not
+                SwingUtilities.invokeLater(() -> loadMoreIfNeeded());
+            }
+        };
+        current = worker;
+        worker.execute();
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.studentperformance.ui;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Table model for results too large to hold in memory. It knows the total row count up front,
+ * so the scroll bar covers the whole result, but only keeps the rows of a few fixed-size
+ * blocks. A block is fetched from the source the first time one of its rows is painted, and
+ * the least recently used block is dropped once the limit is reached, so heap use stays the
+ * same whether the result has a thousand rows or a million.
+ * <p>
+ * Rows whose block has not arrived yet read as null and are repainted when it does. Blocks
+ * load one at a time on a background thread, newest request first, so dragging the scroll
+ * bar across the table only fetches what is on screen when it stops. All methods must be
+ * called on the EDT.
+ *
+ * @param <T> the row type returned by the DAO
+ */
+public class LazyTableModel<T> extends AbstractTableModel {
+
+    public static final int DEFAULT_BLOCK_SIZE = 500;
+    public static final int DEFAULT_MAX_BLOCKS = 20;
+
+    // Requested blocks waiting to load; a screenful of rows never spans more than a couple
+    private static final int MAX_WANTED_BLOCKS = 4;
+
+    // Runs on a background thread and must not touch Swing components
+    public interface RowSource<T> {
+        int count() throws Exception;
+
+        // Up to limit rows starting at the zero-based offset
+        List<T> load(int offset, int limit) throws Exception;
+    }
+
+    // The value shown in a column for one row
+    public interface ColumnValues<T> {
+        Object get(T row, int column);
+    }
+
+    private final String[] columnNames;
+    private final Class<?>[] columnClasses;
+    private final ColumnValues<T> columnValues;
+    private final int blockSize;
+    private final int maxBlocks;
+    private final Consumer<Exception> onError;
+
+    private final Map<Integer, List<T>> blocks;
+    private final Deque<Integer> wanted = new ArrayDeque<>();
+    private RowSource<T> source;
+    private Runnable onCounted = () -> { };
+    private int rowCount;
+    private long generation;
+    private SwingWorker<?, ?> current;
+    private int loadingBlock = -1;
+    private boolean failed;
+
+    public LazyTableModel(String[] columnNames, Class<?>[] columnClasses, ColumnValues<T> columnValues,
+                          Consumer<Exception> onError) {
+        this(columnNames, columnClasses, columnValues, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_BLOCKS, onError);
+    }
+
+    public LazyTableModel(String[] columnNames, Class<?>[] columnClasses, ColumnValues<T> columnValues,
+                          int blockSize, int maxBlocks, Consumer<Exception> onError) {
+        if (blockSize < 1 || maxBlocks < 1) {
+            throw new IllegalArgumentException("Block size and block limit must be at least 1");
+        }
+        this.columnNames = columnNames.clone();
+        this.columnClasses = columnClasses.clone();
+        this.columnValues = columnValues;
+        this.blockSize = blockSize;
+        this.maxBlocks = maxBlocks;
+        this.onError = onError;
+        // Access order, so the eldest entry is the least recently painted block
+        this.blocks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > LazyTableModel.this.maxBlocks;
+            }
+        };
+    }
+
+    // A source over rows already in memory, e.g. search results
+    public static <T> RowSource<T> of(List<T> rows) {
+        return new RowSource<>() {
+            @Override
+            public int count() {
+                return rows.size();
+            }
+
+            @Override
+            public List<T> load(int offset, int limit) {
+                return rows.subList(Math.min(offset, rows.size()), Math.min(offset + limit, rows.size()));
+            }
+        };
+    }
+
+    /**
+     * Shows the rows of a new source. The current row count stays until the new one has been
+     * counted, so the scroll position survives a refresh; onCounted runs once it has.
+     */
+    public void setSource(RowSource<T> source, Runnable onCounted) {
+        cancel();
+        this.source = source;
+        this.onCounted = onCounted;
+        failed = false;
+        long countGeneration = generation;
+
+        SwingWorker<Integer, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return source.count();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || countGeneration != generation) {
+                    return;
+                }
+                current = null;
+                Integer count = result(this);
+                if (count == null) {
+                    return;
+                }
+                rowCount = count;
+                fireTableDataChanged();
+                LazyTableModel.this.onCounted.run();
+                loadNextBlock();
+            }
+        };
+        current = worker;
+        worker.execute();
+    }
+
+    // Counts and fetches the current source again, e.g. after a row was added or deleted
+    public void refresh() {
+        if (source != null) {
+            setSource(source, onCounted);
+        }
+    }
+
+    // Drops every cached block and any load in progress
+    public void cancel() {
+        generation++;
+        blocks.clear();
+        wanted.clear();
+        loadingBlock = -1;
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+
+    // The row at the index, or null while its block is still loading
+    public T getRow(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            return null;
+        }
+        int block = rowIndex / blockSize;
+        List<T> rows = blocks.get(block);
+        if (rows == null) {
+            request(block);
+            return null;
+        }
+        int index = rowIndex % blockSize;
+        return index < rows.size() ? rows.get(index) : null;
+    }
+
+    public int getCachedBlockCount() {
+        return blocks.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return columnClasses[columnIndex];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        T row = getRow(rowIndex);
+        return row == null ? null : columnValues.get(row, columnIndex);
+    }
+
+    private void request(int block) {
+        if (failed || block == loadingBlock || wanted.contains(block)) {
+            return;
+        }
+        wanted.addLast(block);
+        // Only the latest requests matter; older ones have scrolled out of view
+        while (wanted.size() > MAX_WANTED_BLOCKS) {
+            wanted.removeFirst();
+        }
+        if (current == null) {
+            loadNextBlock();
+        }
+    }
+
+    private void loadNextBlock() {
+        Integer next = wanted.pollLast();
+        while (next != null && blocks.containsKey(next)) {
+            next = wanted.pollLast();
+        }
+        if (next == null || source == null) {
+            return;
+        }
+        int block = next;
+        long blockGeneration = generation;
+        RowSource<T> blockSource = source;
+        loadingBlock = block;
+
+        SwingWorker<List<T>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<T> doInBackground() throws Exception {
+                return blockSource.load(block * blockSize, blockSize);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || blockGeneration != generation) {
+                    return;
+                }
+                current = null;
+                loadingBlock = -1;
+                List<T> rows = result(this);
+                if (rows == null) {
+                    return;
+                }
+                blocks.put(block, rows);
+                int first = block * blockSize;
+                int last = Math.min(rowCount, first + blockSize) - 1;
+                if (first <= last) {
+                    fireTableRowsUpdated(first, last);
+                }
+                loadNextBlock();
+            }
+        };
+        current = worker;
+        worker.execute();
+    }
+
+    // The worker's result, or null after reporting its failure; stops further loads on failure
+    private <R> R result(SwingWorker<R, ?> worker) {
+        try {
+            return worker.get();
+        } catch (CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            failed = true;
+            wanted.clear();
+            Throwable cause = e.getCause();
+            onError.accept(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+            return null;
+        }
+    }
+}
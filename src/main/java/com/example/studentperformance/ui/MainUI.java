@@ -1,19 +1,27 @@
 package com.example.studentperformance.ui;
 
-import com.example.studentperformance.DatabaseConnection;
+import com.example.studentperformance.dao.DAOFactory;
 import com.example.studentperformance.dao.StudentDAO;
-import com.example.studentperformance.dao.StudentDAOImpl;
+import com.example.studentperformance.transfer.CsvImporter;
+import com.example.studentperformance.transfer.DataExporter;
+import com.example.studentperformance.transfer.TransferProgress;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.RoundRectangle2D;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.imageio.ImageIO;
 
 public class MainUI {
@@ -179,15 +187,9 @@ public class MainUI {
             statusLabel.setText("Dashboard loaded");
         });
 
-        JMenuItem exportItem = createMenuItem("Export Data", e -> {
-            JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setDialogTitle("Export Data");
-            int userSelection = fileChooser.showSaveDialog(frame);
+        JMenuItem importItem = createMenuItem("Import Data", e -> importData());
 
-            if (userSelection == JFileChooser.APPROVE_OPTION) {
-                statusLabel.setText("Data exported to: " + fileChooser.getSelectedFile().getName());
-            }
-        });
+        JMenuItem exportItem = createMenuItem("Export Data", e -> exportData());
 
         JMenuItem exitItem = createMenuItem("Exit", e -> {
             // Show confirmation dialog before exiting
@@ -205,6 +207,7 @@ public class MainUI {
         });
 
         fileMenu.add(dashboardItem);
+        fileMenu.add(importItem);
         fileMenu.add(exportItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
@@ -303,6 +306,193 @@ public class MainUI {
         return menuBar;
     }
 
+    // Asks for a table and a CSV file, then imports it in the background with a progress window
+    private void importData() {
+        CsvImporter.Table table = (CsvImporter.Table) JOptionPane.showInputDialog(
+                frame,
+                "Import rows into which table?\nImport students and subjects before the grades and attendance that name them.",
+                "Import Data",
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                CsvImporter.Table.values(),
+                CsvImporter.Table.STUDENTS
+        );
+        if (table == null) {
+            return;
+        }
+
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import " + table + " from CSV");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV files (.csv, .csv.gz)", "csv", "gz"));
+        if (fileChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        long fileSize = file.length();
+
+        AtomicBoolean cancelRequested = new AtomicBoolean();
+        TransferProgressDialog progressDialog = new TransferProgressDialog(frame, "Importing " + table,
+                () -> cancelRequested.set(true));
+
+        SwingWorker<CsvImporter.Result, long[]> worker = new SwingWorker<>() {
+            @Override
+            protected CsvImporter.Result doInBackground() throws Exception {
+                return new CsvImporter().importFile(table, file.toPath(), new TransferProgress() {
+                    @Override
+                    public void update(long rows, long bytes) {
+                        publish(new long[]{rows, bytes});
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return cancelRequested.get();
+                    }
+                });
+            }
+
+            @Override
+            protected void process(List<long[]> chunks) {
+                if (cancelRequested.get()) {
+                    return;
+                }
+                long[] latest = chunks.get(chunks.size() - 1);
+                progressDialog.setProgress(String.format("%,d rows read from %s", latest[0], file.getName()),
+                        fileSize > 0 ? (int) (latest[1] * 100 / fileSize) : -1);
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                try {
+                    CsvImporter.Result result = get();
+                    statusLabel.setText(String.format("%s import: %,d imported, %,d rejected",
+                            table, result.getImported(), result.getRejected()));
+                    showImportResult(result);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    statusLabel.setText("Import failed");
+                    JOptionPane.showMessageDialog(frame, "Import failed: " + ex.getCause().getMessage(),
+                            "Import Data", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+        progressDialog.setVisible(true);
+    }
+
+    private void showImportResult(CsvImporter.Result result) {
+        StringBuilder message = new StringBuilder(String.format(
+                "%,d rows read in %.1f s (%,.0f rows/s)%n%,d imported%n%,d skipped as already present%n%,d rejected",
+                result.getRowsRead(), result.getElapsedMillis() / 1000.0, result.getRowsPerSecond(),
+                result.getImported(), result.getSkipped(), result.getRejected()));
+        if (result.isCancelled()) {
+            message.append("\n\nThe import was cancelled; rows read before that were kept.");
+        }
+        // The first few rejects are enough to see what is wrong with the file
+        int shown = Math.min(10, result.getRejects().size());
+        if (shown > 0) {
+            message.append("\n\nRejected rows:");
+            for (String reject : result.getRejects().subList(0, shown)) {
+                message.append("\n").append(reject);
+            }
+            if (result.getRejected() > shown) {
+                message.append(String.format("%n... and %,d more", result.getRejected() - shown));
+            }
+        }
+        JOptionPane.showMessageDialog(frame, message.toString(), "Import " + result.getTable(),
+                result.getRejected() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // Asks for a directory and a format, then writes every table there in the background
+    private void exportData() {
+        JComboBox<DataExporter.Format> formatBox = new JComboBox<>(DataExporter.Format.values());
+        JCheckBox gzipBox = new JCheckBox("Compress with gzip");
+        JPanel optionsPanel = new JPanel(new GridLayout(0, 1, 0, 5));
+        optionsPanel.add(new JLabel("Export students, subjects, grades and attendance as:"));
+        optionsPanel.add(formatBox);
+        optionsPanel.add(gzipBox);
+        if (JOptionPane.showConfirmDialog(frame, optionsPanel, "Export Data", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.QUESTION_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        DataExporter.Format format = (DataExporter.Format) formatBox.getSelectedItem();
+        boolean gzip = gzipBox.isSelected();
+
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Data to Folder");
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (fileChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File directory = fileChooser.getSelectedFile();
+
+        AtomicBoolean cancelRequested = new AtomicBoolean();
+        TransferProgressDialog progressDialog = new TransferProgressDialog(frame, "Exporting Data",
+                () -> cancelRequested.set(true));
+
+        SwingWorker<DataExporter.Result, long[]> worker = new SwingWorker<>() {
+            private long expectedRows;
+
+            @Override
+            protected DataExporter.Result doInBackground() throws Exception {
+                DataExporter exporter = new DataExporter();
+                expectedRows = exporter.estimateRows();
+                return exporter.exportAll(directory.toPath(), format, gzip, new TransferProgress() {
+                    @Override
+                    public void update(long rows, long bytes) {
+                        publish(new long[]{rows, bytes});
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return cancelRequested.get();
+                    }
+                });
+            }
+
+            @Override
+            protected void process(List<long[]> chunks) {
+                if (cancelRequested.get()) {
+                    return;
+                }
+                long[] latest = chunks.get(chunks.size() - 1);
+                progressDialog.setProgress(String.format("%,d rows written (%,d KB)", latest[0], latest[1] / 1024),
+                        expectedRows > 0 ? (int) (latest[0] * 100 / expectedRows) : -1);
+            }
+
+            @Override
+            protected void done() {
+                progressDialog.dispose();
+                try {
+                    DataExporter.Result result = get();
+                    statusLabel.setText(String.format("Exported %,d rows to %s%s", result.getRowsWritten(),
+                            directory.getName(), result.isCancelled() ? " (cancelled)" : ""));
+                    StringBuilder message = new StringBuilder(String.format(
+                            "%,d rows written to %d files in %.1f s (%,.0f rows/s)",
+                            result.getRowsWritten(), result.getFiles().size(), result.getElapsedMillis() / 1000.0,
+                            result.getRowsPerSecond()));
+                    for (Path file : result.getFiles()) {
+                        message.append("\n").append(file);
+                    }
+                    if (result.isCancelled()) {
+                        message.append("\n\nThe export was cancelled; the table being written was discarded.");
+                    }
+                    JOptionPane.showMessageDialog(frame, message.toString(), "Export Data",
+                            JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    statusLabel.setText("Export failed");
+                    JOptionPane.showMessageDialog(frame, "Export failed: " + ex.getCause().getMessage(),
+                            "Export Data", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+        progressDialog.setVisible(true);
+    }
+
     private JMenu createMenu(String title, Color foreground) {
         JMenu menu = new JMenu(title);
         menu.setForeground(foreground);
@@ -366,7 +556,7 @@ public class MainUI {
         // Create the four main action buttons with modern design
         JButton manageStudentsButton = createDashboardButton("Manage Students", studentIcon, e -> {
             statusLabel.setText("Opening student management...");
-            ManageStudentsUI manageStudentsUI = new ManageStudentsUI(DatabaseConnection.getConnection() , new StudentDAOImpl(DatabaseConnection.getConnection()));
+            ManageStudentsUI manageStudentsUI = new ManageStudentsUI(DAOFactory.studentDAO());
             manageStudentsUI.setVisible(true);
         });
 
@@ -378,13 +568,13 @@ public class MainUI {
 
         JButton manageGradesButton = createDashboardButton("Manage Grades", gradeIcon, e -> {
             statusLabel.setText("Opening grade management...");
-            ManageGradesUI manageGradesUI = new ManageGradesUI(DatabaseConnection.getConnection());
+            ManageGradesUI manageGradesUI = new ManageGradesUI();
             manageGradesUI.setVisible(true);
         });
 
         JButton manageAttendanceButton = createDashboardButton("Manage Attendance", attendanceIcon, e -> {
             statusLabel.setText("Opening attendance management...");
-            ManageAttendanceUI manageAttendanceUI = new ManageAttendanceUI(DatabaseConnection.getConnection());
+            ManageAttendanceUI manageAttendanceUI = new ManageAttendanceUI();
             manageAttendanceUI.setVisible(true);
         });
 
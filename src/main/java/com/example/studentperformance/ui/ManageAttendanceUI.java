@@ -9,7 +9,6 @@ import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.RoundRectangle2D;
-import java.sql.Connection;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -26,23 +25,25 @@ public class ManageAttendanceUI {
     private static final Font TABLE_HEADER_FONT = new Font("Segoe UI", Font.BOLD, 14);
     private static final Font TABLE_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     private static final Font BUTTON_FONT = new Font("Segoe UI", Font.BOLD, 14);
+    private static final int SEARCH_PAGE_SIZE = 500; // rows fetched per search
 
     private JFrame frame;
-    private Connection connection;
     private JLabel statusLabel;
     private JLabel countLabel;
     private JTable attendanceTable;
-    private DefaultTableModel tableModel;
+    private LazyTableModel<AttendanceDAO.AttendanceView> tableModel;
     private AttendanceDAO attendanceDAO;
     private StudentDAO studentDAO;
     private SubjectDAO subjectDAO;
     private JTextField searchField;
+    private DebouncedSearch<List<AttendanceDAO.AttendanceView>> attendanceSearch;
+    // Also read by the search worker
+    private volatile boolean sortByDate;
 
-    public ManageAttendanceUI(Connection connection) {
-        this.connection = connection;
-        this.attendanceDAO = new AttendanceDAOImpl(connection);
-        this.studentDAO = new StudentDAOImpl(connection);
-        this.subjectDAO = new SubjectDAOImpl(connection);
+    public ManageAttendanceUI() {
+        this.attendanceDAO = new AttendanceDAOImpl();
+        this.studentDAO = DAOFactory.studentDAO();
+        this.subjectDAO = DAOFactory.subjectDAO();
 
         frame = new JFrame("Manage Attendance");
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -117,24 +118,11 @@ public class ManageAttendanceUI {
         tablePanel.setOpaque(false);
         tablePanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
 
-        // Create the table model with columns
+        // Rows are fetched from the database in blocks as they scroll into view; cells are not editable
         String[] columnNames = {"Student ID", "Student Name", "Subject ID", "Subject Name", "Date", "Present"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            // Make cells not editable directly in the table
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-
-            // Define column types
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                if (columnIndex == 5) { // "Present" column
-                    return Boolean.class;
-                }
-                return super.getColumnClass(columnIndex);
-            }
-        };
+        Class<?>[] columnClasses = {Object.class, Object.class, Object.class, Object.class, Object.class, Boolean.class};
+        tableModel = new LazyTableModel<>(columnNames, columnClasses, ManageAttendanceUI::attendanceColumn,
+                ex -> showErrorMessage("Error loading attendance records: " + ex.getMessage()));
 
         // Create and style the table
         attendanceTable = new JTable(tableModel);
@@ -166,12 +154,9 @@ public class ManageAttendanceUI {
             @Override
             public void mouseClicked(MouseEvent e) {
                 if (e.getClickCount() == 2) {
-                    int selectedRow = attendanceTable.getSelectedRow();
-                    if (selectedRow != -1) {
-                        int studentId = (int) attendanceTable.getValueAt(selectedRow, 0);
-                        int subjectId = (int) attendanceTable.getValueAt(selectedRow, 2);
-                        LocalDate date = (LocalDate) attendanceTable.getValueAt(selectedRow, 4);
-                        openEditAttendanceDialog(studentId, subjectId, date);
+                    AttendanceDAO.AttendanceView attendance = tableModel.getRow(attendanceTable.getSelectedRow());
+                    if (attendance != null) {
+                        openEditAttendanceDialog(attendance.getStudentId(), attendance.getSubjectId(), attendance.getDate());
                     }
                 }
             }
@@ -194,29 +179,36 @@ public class ManageAttendanceUI {
         searchField = new JTextField(20);
         searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
 
-        // Add listener to search as you type
-        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+        // Search as you type; queries run off the EDT once typing pauses
+        attendanceSearch = new DebouncedSearch<>(this::findAttendance, this::showSearchResults,
+                ex -> showErrorMessage("Error searching attendance: " + ex.getMessage()));
+        attendanceSearch.setOnStart(term -> statusLabel.setText("Searching for: " + term.trim()));
+        attendanceSearch.attachTo(searchField);
+        frame.addWindowListener(new WindowAdapter() {
             @Override
-            public void insertUpdate(javax.swing.event.DocumentEvent e) {
-                searchAttendance();
+            public void windowClosed(WindowEvent e) {
+                attendanceSearch.cancel();
+                tableModel.cancel();
             }
+        });
 
-            @Override
-            public void removeUpdate(javax.swing.event.DocumentEvent e) {
-                searchAttendance();
-            }
+        JButton searchButton = createStyledButton("Search", e -> attendanceSearch.runNow(searchField.getText()));
 
-            @Override
-            public void changedUpdate(javax.swing.event.DocumentEvent e) {
-                searchAttendance();
-            }
+        JLabel sortLabel = new JLabel("Sort by:");
+        sortLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        sortLabel.setForeground(TEXT_COLOR);
+        JComboBox<String> sortComboBox = new JComboBox<>(new String[]{"Entry Order", "Date"});
+        sortComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        sortComboBox.addActionListener(e -> {
+            sortByDate = sortComboBox.getSelectedIndex() == 1;
+            attendanceSearch.runNow(searchField.getText());
         });
 
-        JButton searchButton = createStyledButton("Search", e -> searchAttendance());
-
         searchPanel.add(searchLabel);
         searchPanel.add(searchField);
         searchPanel.add(searchButton);
+        searchPanel.add(sortLabel);
+        searchPanel.add(sortComboBox);
 
         // Add components to the panel
         tablePanel.add(searchPanel, BorderLayout.NORTH);
@@ -228,42 +220,31 @@ public class ManageAttendanceUI {
         return tablePanel;
     }
 
-    private void searchAttendance() {
-        String searchTerm = searchField.getText().trim().toLowerCase();
-        statusLabel.setText("Searching for: " + searchTerm);
-
+    // Runs on a background thread; must not touch the table
+    private List<AttendanceDAO.AttendanceView> findAttendance(String term) throws Exception {
+        String searchTerm = term.trim();
         if (searchTerm.isEmpty()) {
-            loadAttendance(); // Load all attendance records if search field is empty
-            return;
+            return List.of(); // An empty search goes back to paging through all records
         }
 
-        try {
-            List<AttendanceDAO.Attendance> allAttendance = attendanceDAO.getAllAttendance();
-            List<AttendanceDAO.Attendance> filteredAttendance = new ArrayList<>();
-
-            // Filter attendance based on search term
-            for (AttendanceDAO.Attendance attendance : allAttendance) {
-                StudentDAO.Student student = studentDAO.readStudent(attendance.getStudentId());
-                SubjectDAO.Subject subject = subjectDAO.readSubject(attendance.getSubjectId());
-
-                if (String.valueOf(attendance.getStudentId()).contains(searchTerm) ||
-                        String.valueOf(attendance.getSubjectId()).contains(searchTerm) ||
-                        String.valueOf(attendance.getDate()).contains(searchTerm) ||
-                        String.valueOf(attendance.isPresent()).contains(searchTerm) ||
-                        student.getName().toLowerCase().contains(searchTerm) ||
-                        subject.getName().toLowerCase().contains(searchTerm)) {
-                    filteredAttendance.add(attendance);
-                }
-            }
-
-            // Update table with filtered results
-            updateTableWithAttendance(filteredAttendance);
-            statusLabel.setText("Found " + filteredAttendance.size() + " matching attendance records");
+        // The filter runs in SQL and only the first page of matches is read, so a term that
+        // matches half the table costs no more memory than one that matches a few rows
+        return attendanceDAO.searchAttendance(searchTerm, sortByDate, SEARCH_PAGE_SIZE, 0);
+    }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            showErrorMessage("Error searching attendance: " + ex.getMessage());
+    private void showSearchResults(String term, List<AttendanceDAO.AttendanceView> rows) {
+        if (term.trim().isEmpty()) {
+            loadAttendance();
+            return;
         }
+        tableModel.setSource(LazyTableModel.of(rows), () -> {
+            updateCountLabel();
+            if (rows.size() == SEARCH_PAGE_SIZE) {
+                statusLabel.setText("Showing the first " + SEARCH_PAGE_SIZE + " matching attendance records");
+            } else {
+                statusLabel.setText("Found " + rows.size() + " matching attendance records");
+            }
+        });
     }
 
     private JPanel createButtonPanel() {
@@ -273,15 +254,13 @@ public class ManageAttendanceUI {
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
 
         JButton addButton = createStyledButton("Add Attendance", e -> openAddAttendanceDialog());
+        JButton markClassButton = createStyledButton("Mark Whole Class", e -> openMarkClassDialog());
         JButton editButton = createStyledButton("Edit Attendance", e -> {
-            int selectedRow = attendanceTable.getSelectedRow();
-            if (selectedRow == -1) {
+            AttendanceDAO.AttendanceView attendance = tableModel.getRow(attendanceTable.getSelectedRow());
+            if (attendance == null) {
                 showErrorMessage("Please select an attendance record to edit.");
             } else {
-                int studentId = (int) attendanceTable.getValueAt(selectedRow, 0);
-                int subjectId = (int) attendanceTable.getValueAt(selectedRow, 2);
-                LocalDate date = (LocalDate) attendanceTable.getValueAt(selectedRow, 4);
-                openEditAttendanceDialog(studentId, subjectId, date);
+                openEditAttendanceDialog(attendance.getStudentId(), attendance.getSubjectId(), attendance.getDate());
             }
         });
 
@@ -290,6 +269,7 @@ public class ManageAttendanceUI {
         JButton closeButton = createStyledButton("Close", e -> frame.dispose());
 
         buttonPanel.add(addButton);
+        buttonPanel.add(markClassButton);
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
         buttonPanel.add(refreshButton);
@@ -457,6 +437,182 @@ public class ManageAttendanceUI {
         addDialog.setVisible(true);
     }
 
+    // Records one subject and day for every student at once, saved as a single batch
+    private void openMarkClassDialog() {
+        statusLabel.setText("Opening mark whole class dialog...");
+
+        JDialog markDialog = new JDialog(frame, "Mark Whole Class", true);
+        markDialog.setLayout(new BorderLayout());
+        markDialog.setSize(600, 550);
+        markDialog.setLocationRelativeTo(frame);
+
+        // Create a panel with a gradient background
+        JPanel panel = new JPanel(new BorderLayout(0, 10)) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                Graphics2D g2d = (Graphics2D) g.create();
+                g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+                int w = getWidth();
+                int h = getHeight();
+                GradientPaint gp = new GradientPaint(0, 0, BACKGROUND_COLOR, 0, h, new Color(230, 240, 250));
+                g2d.setPaint(gp);
+                g2d.fillRect(0, 0, w, h);
+                g2d.dispose();
+            }
+        };
+        panel.setBorder(new EmptyBorder(20, 20, 20, 20));
+
+        // Subject and date
+        JPanel formPanel = new JPanel(new GridLayout(2, 2, 10, 10));
+        formPanel.setOpaque(false);
+
+        JLabel subjectLabel = new JLabel("Subject:");
+        subjectLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        subjectLabel.setForeground(TEXT_COLOR);
+
+        JComboBox<ComboItem> subjectComboBox = new JComboBox<>();
+        subjectComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+
+        JLabel dateLabel = new JLabel("Date (YYYY-MM-DD):");
+        dateLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        dateLabel.setForeground(TEXT_COLOR);
+
+        JTextField dateField = new JTextField();
+        dateField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        dateField.setText(LocalDate.now().toString()); // Default to today's date
+
+        formPanel.add(subjectLabel);
+        formPanel.add(subjectComboBox);
+        formPanel.add(dateLabel);
+        formPanel.add(dateField);
+
+        // One row per student, everyone present by default
+        DefaultTableModel classModel = new DefaultTableModel(new String[]{"Student ID", "Student Name", "Present"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return column == 2;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int columnIndex) {
+                return columnIndex == 2 ? Boolean.class : super.getColumnClass(columnIndex);
+            }
+        };
+
+        try {
+            for (SubjectDAO.Subject subject : subjectDAO.getAllSubjects()) {
+                subjectComboBox.addItem(new ComboItem(subject.getSubjectId(), subject.getName()));
+            }
+            for (StudentDAO.Student student : studentDAO.getAllStudents()) {
+                classModel.addRow(new Object[]{student.getStudentId(), student.getName(), Boolean.TRUE});
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            showErrorMessage("Error loading students or subjects: " + ex.getMessage());
+        }
+
+        JTable classTable = new JTable(classModel);
+        classTable.setFont(TABLE_FONT);
+        classTable.setRowHeight(25);
+        classTable.getTableHeader().setFont(TABLE_HEADER_FONT);
+        classTable.getColumnModel().getColumn(0).setPreferredWidth(80);
+        classTable.getColumnModel().getColumn(1).setPreferredWidth(250);
+        classTable.getColumnModel().getColumn(2).setPreferredWidth(80);
+
+        JScrollPane classScrollPane = new JScrollPane(classTable);
+        classScrollPane.setBorder(BorderFactory.createLineBorder(SECONDARY_COLOR, 1, true));
+
+        // Create button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setOpaque(false);
+
+        JButton allPresentButton = createStyledButton("All Present", e -> {
+            for (int i = 0; i < classModel.getRowCount(); i++) {
+                classModel.setValueAt(Boolean.TRUE, i, 2);
+            }
+        });
+
+        JButton allAbsentButton = createStyledButton("All Absent", e -> {
+            for (int i = 0; i < classModel.getRowCount(); i++) {
+                classModel.setValueAt(Boolean.FALSE, i, 2);
+            }
+        });
+
+        JButton saveButton = createStyledButton("Save", e -> {
+            ComboItem selectedSubject = (ComboItem) subjectComboBox.getSelectedItem();
+            String dateText = dateField.getText().trim();
+
+            if (selectedSubject == null || dateText.isEmpty() || classModel.getRowCount() == 0) {
+                JOptionPane.showMessageDialog(markDialog, "Please select a subject and date.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            // Parse and validate date
+            LocalDate date;
+            try {
+                date = LocalDate.parse(dateText);
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(markDialog, "Please enter a valid date in YYYY-MM-DD format.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            // Finish any in-progress checkbox edit before reading the model
+            if (classTable.isEditing()) {
+                classTable.getCellEditor().stopCellEditing();
+            }
+
+            List<AttendanceDAO.Attendance> records = new ArrayList<>(classModel.getRowCount());
+            for (int i = 0; i < classModel.getRowCount(); i++) {
+                int studentId = (int) classModel.getValueAt(i, 0);
+                boolean present = (Boolean) classModel.getValueAt(i, 2);
+                records.add(new AttendanceDAO.Attendance(studentId, selectedSubject.getId(), date, present));
+            }
+
+            try {
+                int[] results = attendanceDAO.createAttendanceBatch(records);
+                int inserted = 0;
+                for (int result : results) {
+                    inserted += result;
+                }
+                int skipped = results.length - inserted;
+
+                loadAttendance();
+                statusLabel.setText("Marked " + inserted + " students for " + selectedSubject.getName() + " on " + date +
+                        (skipped > 0 ? " (" + skipped + " already recorded, skipped)" : ""));
+
+                markDialog.dispose();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                showErrorMessage("Error marking attendance: " + ex.getMessage());
+            }
+        });
+
+        JButton cancelButton = createStyledButton("Cancel", e -> markDialog.dispose());
+
+        buttonPanel.add(allPresentButton);
+        buttonPanel.add(allAbsentButton);
+        buttonPanel.add(saveButton);
+        buttonPanel.add(cancelButton);
+
+        // Add components to panel
+        JPanel topPanel = new JPanel(new BorderLayout(0, 10));
+        topPanel.setOpaque(false);
+        topPanel.add(new JLabel("Mark Attendance for the Whole Class", SwingConstants.CENTER), BorderLayout.NORTH);
+        topPanel.add(formPanel, BorderLayout.CENTER);
+
+        panel.add(topPanel, BorderLayout.NORTH);
+        panel.add(classScrollPane, BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        // Add panel to dialog
+        markDialog.add(panel);
+
+        // Show dialog
+        markDialog.setVisible(true);
+    }
+
     private void openEditAttendanceDialog(int studentId, int subjectId, LocalDate date) {
         statusLabel.setText("Opening edit dialog for Student ID: " + studentId + ", Subject ID: " + subjectId + ", Date: " + date);
 
@@ -590,17 +746,17 @@ public class ManageAttendanceUI {
     }
 
     private void deleteSelectedAttendance() {
-        int selectedRow = attendanceTable.getSelectedRow();
-        if (selectedRow == -1) {
+        AttendanceDAO.AttendanceView attendance = tableModel.getRow(attendanceTable.getSelectedRow());
+        if (attendance == null) {
             showErrorMessage("Please select an attendance record to delete.");
             return;
         }
 
-        int studentId = (int) attendanceTable.getValueAt(selectedRow, 0);
-        int subjectId = (int) attendanceTable.getValueAt(selectedRow, 2);
-        LocalDate date = (LocalDate) attendanceTable.getValueAt(selectedRow, 4);
-        String studentName = (String) attendanceTable.getValueAt(selectedRow, 1);
-        String subjectName = (String) attendanceTable.getValueAt(selectedRow, 3);
+        int studentId = attendance.getStudentId();
+        int subjectId = attendance.getSubjectId();
+        LocalDate date = attendance.getDate();
+        String studentName = (String) attendanceColumn(attendance, 1);
+        String subjectName = (String) attendanceColumn(attendance, 3);
 
         // Confirmation dialog with attendance details
         int response = JOptionPane.showConfirmDialog(
@@ -617,12 +773,13 @@ public class ManageAttendanceUI {
                 // Delete attendance using deleteAttendance
                 attendanceDAO.deleteAttendance(studentId, subjectId, date);
 
-                // Remove from table model
-                tableModel.removeRow(selectedRow);
+                // Count and fetch the shown rows again; search results come from searching again
+                if (searchField.getText().trim().isEmpty()) {
+                    tableModel.refresh();
+                } else {
+                    attendanceSearch.runNow(searchField.getText());
+                }
                 statusLabel.setText("Attendance deleted successfully");
-
-                // Update count label
-                updateCountLabel();
             } catch (Exception ex) {
                 ex.printStackTrace();
                 showErrorMessage("Error deleting attendance: " + ex.getMessage());
@@ -719,54 +876,43 @@ public class ManageAttendanceUI {
         return statusPanel;
     }
 
+    // Counts the records and shows them; rows are fetched as they scroll into view
     private void loadAttendance() {
         statusLabel.setText("Loading attendance records...");
+        boolean byDate = sortByDate;
+        tableModel.setSource(new LazyTableModel.RowSource<>() {
+            @Override
+            public int count() throws Exception {
+                return attendanceDAO.countAttendance();
+            }
 
-        try {
-            List<AttendanceDAO.Attendance> attendanceList = attendanceDAO.getAllAttendance();
-            updateTableWithAttendance(attendanceList);
+            @Override
+            public List<AttendanceDAO.AttendanceView> load(int offset, int limit) throws Exception {
+                return byDate
+                        ? attendanceDAO.getAttendanceViewsByDateAt(offset, limit)
+                        : attendanceDAO.getAttendanceViewsAt(offset, limit);
+            }
+        }, () -> {
+            updateCountLabel();
             statusLabel.setText("Attendance records loaded successfully");
-        } catch (Exception e) {
-            e.printStackTrace();
-            showErrorMessage("Error loading attendance records: " + e.getMessage());
-        }
+        });
     }
 
-    private void updateTableWithAttendance(List<AttendanceDAO.Attendance> attendanceList) {
-        // Clear existing rows
-        tableModel.setRowCount(0);
-
-        // Update the count label
-        countLabel.setText("Total Attendance Records: " + attendanceList.size());
-
-        // Populate table with data
-        for (AttendanceDAO.Attendance attendance : attendanceList) {
-            try {
-                StudentDAO.Student student = studentDAO.readStudent(attendance.getStudentId());
-                SubjectDAO.Subject subject = subjectDAO.readSubject(attendance.getSubjectId());
-
-                Object[] row = {
-                        attendance.getStudentId(),
-                        student.getName(),
-                        attendance.getSubjectId(),
-                        subject.getName(),
-                        attendance.getDate(),
-                        attendance.isPresent()
-                };
-                tableModel.addRow(row);
-            } catch (Exception e) {
-                e.printStackTrace();
-                // If we can't load student or subject, still show the attendance with placeholder
-                Object[] row = {
-                        attendance.getStudentId(),
-                        "Unknown Student",
-                        attendance.getSubjectId(),
-                        "Unknown Subject",
-                        attendance.getDate(),
-                        attendance.isPresent()
-                };
-                tableModel.addRow(row);
-            }
+    private static Object attendanceColumn(AttendanceDAO.AttendanceView attendance, int column) {
+        switch (column) {
+            case 0:
+                return attendance.getStudentId();
+            case 1:
+                // Keep showing the record even if the student or subject no longer exists
+                return attendance.getStudentName() != null ? attendance.getStudentName() : "Unknown Student";
+            case 2:
+                return attendance.getSubjectId();
+            case 3:
+                return attendance.getSubjectName() != null ? attendance.getSubjectName() : "Unknown Subject";
+            case 4:
+                return attendance.getDate();
+            default:
+                return attendance.isPresent();
         }
     }
 
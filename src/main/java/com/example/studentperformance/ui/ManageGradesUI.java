@@ -4,13 +4,10 @@ import com.example.studentperformance.dao.*;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.RoundRectangle2D;
-import java.sql.Connection;
-import java.util.ArrayList;
 import java.util.List;
 
 public class ManageGradesUI {
@@ -24,23 +21,23 @@ public class ManageGradesUI {
     private static final Font TABLE_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     private static final Font BUTTON_FONT = new Font("Segoe UI", Font.BOLD, 14);
     private static final int ANIMATION_DURATION = 200; // milliseconds
+    private static final int SEARCH_PAGE_SIZE = 500; // rows fetched per search
 
     private JFrame frame;
-    private Connection connection;
     private JLabel statusLabel;
     private JLabel countLabel;
     private JTable gradesTable;
-    private DefaultTableModel tableModel;
+    private LazyTableModel<GradeDAO.GradeView> tableModel;
     private GradeDAO gradeDAO;
     private StudentDAO studentDAO;
     private SubjectDAO subjectDAO;
     private JTextField searchField;
+    private DebouncedSearch<List<GradeDAO.GradeView>> gradeSearch;
 
-    public ManageGradesUI(Connection connection) {
-        this.connection = connection;
-        this.gradeDAO = new GradeDAOImpl(connection);
-        this.studentDAO = new StudentDAOImpl(connection);
-        this.subjectDAO = new SubjectDAOImpl(connection);
+    public ManageGradesUI() {
+        this.gradeDAO = new GradeDAOImpl();
+        this.studentDAO = DAOFactory.studentDAO();
+        this.subjectDAO = DAOFactory.subjectDAO();
 
         frame = new JFrame("Manage Grades");
         frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -115,15 +112,11 @@ public class ManageGradesUI {
         tablePanel.setOpaque(false);
         tablePanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
 
-        // Create the table model with columns
+        // Rows are fetched from the database in blocks as they scroll into view; cells are not editable
         String[] columnNames = {"Student ID", "Student Name", "Subject ID", "Subject Name", "Grade"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            // Make cells not editable directly in the table
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        Class<?>[] columnClasses = {Object.class, Object.class, Object.class, Object.class, Object.class};
+        tableModel = new LazyTableModel<>(columnNames, columnClasses, ManageGradesUI::gradeColumn,
+                ex -> showErrorMessage("Error loading grades: " + ex.getMessage()));
 
         // Create and style the table
         gradesTable = new JTable(tableModel);
@@ -154,11 +147,9 @@ public class ManageGradesUI {
             @Override
             public void mouseClicked(MouseEvent e) {
                 if (e.getClickCount() == 2) {
-                    int selectedRow = gradesTable.getSelectedRow();
-                    if (selectedRow != -1) {
-                        int studentId = (int) gradesTable.getValueAt(selectedRow, 0);
-                        int subjectId = (int) gradesTable.getValueAt(selectedRow, 2);
-                        openEditGradeDialog(studentId, subjectId);
+                    GradeDAO.GradeView grade = tableModel.getRow(gradesTable.getSelectedRow());
+                    if (grade != null) {
+                        openEditGradeDialog(grade.getStudentId(), grade.getSubjectId());
                     }
                 }
             }
@@ -181,25 +172,20 @@ public class ManageGradesUI {
         searchField = new JTextField(20);
         searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
 
-        // Add listener to search as you type
-        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            @Override
-            public void insertUpdate(javax.swing.event.DocumentEvent e) {
-                searchGrades();
-            }
-
-            @Override
-            public void removeUpdate(javax.swing.event.DocumentEvent e) {
-                searchGrades();
-            }
-
+        // Search as you type; queries run off the EDT once typing pauses
+        gradeSearch = new DebouncedSearch<>(this::findGrades, this::showSearchResults,
+                ex -> showErrorMessage("Error searching grades: " + ex.getMessage()));
+        gradeSearch.setOnStart(term -> statusLabel.setText("Searching for: " + term.trim()));
+        gradeSearch.attachTo(searchField);
+        frame.addWindowListener(new WindowAdapter() {
             @Override
-            public void changedUpdate(javax.swing.event.DocumentEvent e) {
-                searchGrades();
+            public void windowClosed(WindowEvent e) {
+                gradeSearch.cancel();
+                tableModel.cancel();
             }
         });
 
-        JButton searchButton = createStyledButton("Search", e -> searchGrades());
+        JButton searchButton = createStyledButton("Search", e -> gradeSearch.runNow(searchField.getText()));
 
         searchPanel.add(searchLabel);
         searchPanel.add(searchField);
@@ -215,41 +201,29 @@ public class ManageGradesUI {
         return tablePanel;
     }
 
-    private void searchGrades() {
-        String searchTerm = searchField.getText().trim().toLowerCase();
-        statusLabel.setText("Searching for: " + searchTerm);
-
+    // Runs on a background thread; must not touch the table
+    private List<GradeDAO.GradeView> findGrades(String term) throws Exception {
+        String searchTerm = term.trim();
         if (searchTerm.isEmpty()) {
-            loadGrades(); // Load all grades if search field is empty
-            return;
+            return List.of(); // An empty search goes back to paging through all grades
         }
+        // Filtering happens in SQLite; only the first page of matches comes back
+        return gradeDAO.searchGrades(searchTerm, SEARCH_PAGE_SIZE, 0);
+    }
 
-        try {
-            List<GradeDAO.Grade> allGrades = gradeDAO.getAllGrades();
-            List<GradeDAO.Grade> filteredGrades = new ArrayList<>();
-
-            // Filter grades based on search term
-            for (GradeDAO.Grade grade : allGrades) {
-                StudentDAO.Student student = studentDAO.readStudent(grade.getStudentId());
-                SubjectDAO.Subject subject = subjectDAO.readSubject(grade.getSubjectId());
-
-                if (String.valueOf(grade.getStudentId()).contains(searchTerm) ||
-                        String.valueOf(grade.getSubjectId()).contains(searchTerm) ||
-                        String.valueOf(grade.getGrade()).contains(searchTerm) ||
-                        student.getName().toLowerCase().contains(searchTerm) ||
-                        subject.getName().toLowerCase().contains(searchTerm)) {
-                    filteredGrades.add(grade);
-                }
-            }
-
-            // Update table with filtered results
-            updateTableWithGrades(filteredGrades);
-            statusLabel.setText("Found " + filteredGrades.size() + " matching grades");
-
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            showErrorMessage("Error searching grades: " + ex.getMessage());
+    private void showSearchResults(String term, List<GradeDAO.GradeView> grades) {
+        if (term.trim().isEmpty()) {
+            loadGrades();
+            return;
         }
+        tableModel.setSource(LazyTableModel.of(grades), () -> {
+            updateCountLabel();
+            if (grades.size() == SEARCH_PAGE_SIZE) {
+                statusLabel.setText("Showing the first " + SEARCH_PAGE_SIZE + " matching grades");
+            } else {
+                statusLabel.setText("Found " + grades.size() + " matching grades");
+            }
+        });
     }
 
     private JPanel createButtonPanel() {
@@ -260,13 +234,11 @@ public class ManageGradesUI {
 
         JButton addButton = createStyledButton("Add Grade", e -> openAddGradeDialog());
         JButton editButton = createStyledButton("Edit Grade", e -> {
-            int selectedRow = gradesTable.getSelectedRow();
-            if (selectedRow == -1) {
+            GradeDAO.GradeView grade = tableModel.getRow(gradesTable.getSelectedRow());
+            if (grade == null) {
                 showErrorMessage("Please select a grade to edit.");
             } else {
-                int studentId = (int) gradesTable.getValueAt(selectedRow, 0);
-                int subjectId = (int) gradesTable.getValueAt(selectedRow, 2);
-                openEditGradeDialog(studentId, subjectId);
+                openEditGradeDialog(grade.getStudentId(), grade.getSubjectId());
             }
         });
 
@@ -562,16 +534,16 @@ public class ManageGradesUI {
     }
 
     private void deleteSelectedGrade() {
-        int selectedRow = gradesTable.getSelectedRow();
-        if (selectedRow == -1) {
+        GradeDAO.GradeView grade = tableModel.getRow(gradesTable.getSelectedRow());
+        if (grade == null) {
             showErrorMessage("Please select a grade to delete.");
             return;
         }
 
-        int studentId = (int) gradesTable.getValueAt(selectedRow, 0);
-        int subjectId = (int) gradesTable.getValueAt(selectedRow, 2);
-        String studentName = (String) gradesTable.getValueAt(selectedRow, 1);
-        String subjectName = (String) gradesTable.getValueAt(selectedRow, 3);
+        int studentId = grade.getStudentId();
+        int subjectId = grade.getSubjectId();
+        String studentName = grade.getStudentName();
+        String subjectName = grade.getSubjectName();
 
         // Confirmation dialog with grade details
         int response = JOptionPane.showConfirmDialog(
@@ -588,12 +560,13 @@ public class ManageGradesUI {
                 // Delete grade using deleteGrade
                 gradeDAO.deleteGrade(studentId, subjectId);
 
-                // Remove from table model
-                tableModel.removeRow(selectedRow);
+                // Count and fetch the shown rows again; search results come from searching again
+                if (searchField.getText().trim().isEmpty()) {
+                    tableModel.refresh();
+                } else {
+                    gradeSearch.runNow(searchField.getText());
+                }
                 statusLabel.setText("Grade deleted successfully");
-
-                // Update count label
-                updateCountLabel();
             } catch (Exception ex) {
                 ex.printStackTrace();
                 showErrorMessage("Error deleting grade: " + ex.getMessage());
@@ -690,44 +663,38 @@ public class ManageGradesUI {
         return statusPanel;
     }
 
+    // Counts the grades and shows them; rows are fetched as they scroll into view
     private void loadGrades() {
         statusLabel.setText("Loading grades...");
+        tableModel.setSource(new LazyTableModel.RowSource<>() {
+            @Override
+            public int count() throws Exception {
+                return gradeDAO.countGrades();
+            }
 
-        try {
-            List<GradeDAO.Grade> grades = gradeDAO.getAllGrades();
-            updateTableWithGrades(grades);
+            @Override
+            public List<GradeDAO.GradeView> load(int offset, int limit) throws Exception {
+                return gradeDAO.getGradeViewsAt(offset, limit);
+            }
+        }, () -> {
+            updateCountLabel();
             statusLabel.setText("Grades loaded successfully");
-        } catch (Exception e) {
-            e.printStackTrace();
-            showErrorMessage("Error loading grades: " + e.getMessage());
-        }
+        });
     }
 
-    private void updateTableWithGrades(List<GradeDAO.Grade> grades) {
-        // Clear existing rows
-        tableModel.setRowCount(0);
-
-        try {
-            // Update the count label
-            countLabel.setText("Total Grades: " + grades.size());
-
-            // Populate table with data
-            for (GradeDAO.Grade grade : grades) {
-                StudentDAO.Student student = studentDAO.readStudent(grade.getStudentId());
-                SubjectDAO.Subject subject = subjectDAO.readSubject(grade.getSubjectId());
-
-                Object[] row = {
-                        grade.getStudentId(),
-                        student.getName(),
-                        grade.getSubjectId(),
-                        subject.getName(),
-                        grade.getGrade()
-                };
-                tableModel.addRow(row);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            showErrorMessage("Error populating table: " + e.getMessage());
+    // Names come pre-joined, no per-row lookups
+    private static Object gradeColumn(GradeDAO.GradeView grade, int column) {
+        switch (column) {
+            case 0:
+                return grade.getStudentId();
+            case 1:
+                return grade.getStudentName();
+            case 2:
+                return grade.getSubjectId();
+            case 3:
+                return grade.getSubjectName();
+            default:
+                return grade.getGrade();
         }
     }
 
@@ -9,8 +9,6 @@ import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.RoundRectangle2D;
-import java.sql.Connection;
-import java.util.ArrayList;
 import java.util.List;
 
 public class ManageStudentsUI {
@@ -24,18 +22,21 @@ public class ManageStudentsUI {
     private static final Font TABLE_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     private static final Font BUTTON_FONT = new Font("Segoe UI", Font.BOLD, 14);
     private static final int ANIMATION_DURATION = 200; // milliseconds
+    private static final int SEARCH_PAGE_SIZE = 500; // rows fetched per search
 
     private JFrame frame;
-    private Connection connection;
     private JLabel statusLabel;
     private JLabel countLabel;
     private JTable studentsTable;
     private DefaultTableModel tableModel;
     private StudentDAO studentDAO;
     private JTextField searchField;
+    private DebouncedSearch<List<StudentDAO.Student>> studentSearch;
+    private InfiniteScroll<StudentDAO.Student> studentPager;
+    // Read by the page loader off the EDT
+    private volatile boolean sortByName;
 
-    public ManageStudentsUI(Connection connection, StudentDAO studentDAO) {
-        this.connection = connection;
+    public ManageStudentsUI(StudentDAO studentDAO) {
         this.studentDAO = studentDAO;
 
         frame = new JFrame("Manage Students");
@@ -163,6 +164,10 @@ public class ManageStudentsUI {
                 BorderFactory.createLineBorder(SECONDARY_COLOR, 1, true)
         ));
 
+        // Pages in students as the user scrolls instead of loading the whole table
+        studentPager = new InfiniteScroll<>(scrollPane, this::loadStudentPage, this::showStudentPage,
+                ex -> showErrorMessage("Error loading students: " + ex.getMessage()));
+
         // Search panel at the top
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         searchPanel.setOpaque(false);
@@ -173,29 +178,36 @@ public class ManageStudentsUI {
         searchField = new JTextField(20);
         searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
 
-        // Add listener to search as you type
-        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+        // Search as you type; queries run off the EDT once typing pauses
+        studentSearch = new DebouncedSearch<>(this::findStudents, this::showSearchResults,
+                ex -> showErrorMessage("Error searching students: " + ex.getMessage()));
+        studentSearch.setOnStart(term -> statusLabel.setText("Searching for: " + term.trim()));
+        studentSearch.attachTo(searchField);
+        frame.addWindowListener(new WindowAdapter() {
             @Override
-            public void insertUpdate(javax.swing.event.DocumentEvent e) {
-                searchStudents();
+            public void windowClosed(WindowEvent e) {
+                studentSearch.cancel();
+                studentPager.stop();
             }
+        });
 
-            @Override
-            public void removeUpdate(javax.swing.event.DocumentEvent e) {
-                searchStudents();
-            }
+        JButton searchButton = createStyledButton("Search", e -> studentSearch.runNow(searchField.getText()));
 
-            @Override
-            public void changedUpdate(javax.swing.event.DocumentEvent e) {
-                searchStudents();
-            }
+        JLabel sortLabel = new JLabel("Sort by:");
+        sortLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        sortLabel.setForeground(TEXT_COLOR);
+        JComboBox<String> sortComboBox = new JComboBox<>(new String[]{"ID", "Name"});
+        sortComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        sortComboBox.addActionListener(e -> {
+            sortByName = sortComboBox.getSelectedIndex() == 1;
+            studentSearch.runNow(searchField.getText());
         });
 
-        JButton searchButton = createStyledButton("Search", e -> searchStudents());
-
         searchPanel.add(searchLabel);
         searchPanel.add(searchField);
         searchPanel.add(searchButton);
+        searchPanel.add(sortLabel);
+        searchPanel.add(sortComboBox);
 
         // Add components to the panel
         tablePanel.add(searchPanel, BorderLayout.NORTH);
@@ -207,35 +219,47 @@ public class ManageStudentsUI {
         return tablePanel;
     }
 
-    private void searchStudents() {
-        String searchTerm = searchField.getText().trim().toLowerCase();
-        statusLabel.setText("Searching for: " + searchTerm);
-
+    // Runs on a background thread; must not touch the table
+    private List<StudentDAO.Student> findStudents(String term) throws Exception {
+        String searchTerm = term.trim();
         if (searchTerm.isEmpty()) {
-            loadStudents(); // Load all students if search field is empty
-            return;
+            return List.of(); // An empty search goes back to paging through all students
         }
+        // Filtering happens in SQLite; only the first page of matches comes back
+        return studentDAO.searchStudents(searchTerm, sortByName, SEARCH_PAGE_SIZE, 0);
+    }
 
-        try {
-            List<StudentDAO.Student> allStudents = studentDAO.getAllStudents();
-            List<StudentDAO.Student> filteredStudents = new ArrayList<>();
-
-            // Filter students based on search term
-            for (StudentDAO.Student student : allStudents) {
-                if (student.getName().toLowerCase().contains(searchTerm) ||
-                        String.valueOf(student.getStudentId()).contains(searchTerm)) {
-                    filteredStudents.add(student);
-                }
-            }
+    private void showSearchResults(String term, List<StudentDAO.Student> students) {
+        if (term.trim().isEmpty()) {
+            loadStudents();
+            return;
+        }
+        studentPager.stop();
+        updateTableWithStudents(students);
+        if (students.size() == SEARCH_PAGE_SIZE) {
+            statusLabel.setText("Showing the first " + SEARCH_PAGE_SIZE + " matching students");
+        } else {
+            statusLabel.setText("Found " + students.size() + " matching students");
+        }
+    }
 
-            // Update table with filtered results
-            updateTableWithStudents(filteredStudents);
-            statusLabel.setText("Found " + filteredStudents.size() + " matching students");
+    // Runs on a background thread; fetches the page after the last row already shown
+    private List<StudentDAO.Student> loadStudentPage(StudentDAO.Student last, int limit) throws Exception {
+        if (sortByName) {
+            return last == null
+                    ? studentDAO.getStudentsPageByName(null, 0, limit)
+                    : studentDAO.getStudentsPageByName(last.getName(), last.getStudentId(), limit);
+        }
+        return studentDAO.getStudentsPage(last == null ? null : last.getStudentId(), limit);
+    }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            showErrorMessage("Error searching students: " + ex.getMessage());
+    private void showStudentPage(List<StudentDAO.Student> page, boolean firstPage) {
+        if (firstPage) {
+            tableModel.setRowCount(0);
+            statusLabel.setText("Students loaded successfully");
         }
+        addStudentRows(page);
+        updateCountLabel();
     }
 
     private JPanel createButtonPanel() {
@@ -590,26 +614,20 @@ public class ManageStudentsUI {
         return statusPanel;
     }
 
+    // Starts paging from the first student again; the rest load as the user scrolls
     private void loadStudents() {
         statusLabel.setText("Loading students...");
-
-        try {
-            List<StudentDAO.Student> students = studentDAO.getAllStudents();
-            updateTableWithStudents(students);
-            statusLabel.setText("Students loaded successfully");
-        } catch (Exception e) {
-            e.printStackTrace();
-            showErrorMessage("Error loading students: " + e.getMessage());
-        }
+        studentPager.reset();
     }
 
     private void updateTableWithStudents(List<StudentDAO.Student> students) {
         // Clear existing rows
         tableModel.setRowCount(0);
+        addStudentRows(students);
+        updateCountLabel();
+    }
 
-        // Update the count label
-        countLabel.setText("Total Students: " + students.size());
-
+    private void addStudentRows(List<StudentDAO.Student> students) {
         // Populate table with data - only ID and Name
         for (StudentDAO.Student student : students) {
             Object[] row = {
@@ -621,7 +639,11 @@ public class ManageStudentsUI {
     }
 
     private void updateCountLabel() {
-        countLabel.setText("Total Students: " + tableModel.getRowCount());
+        if (studentPager.hasMore()) {
+            countLabel.setText("Students Loaded: " + tableModel.getRowCount() + " (scroll for more)");
+        } else {
+            countLabel.setText("Total Students: " + tableModel.getRowCount());
+        }
     }
 
     private void showErrorMessage(String message) {
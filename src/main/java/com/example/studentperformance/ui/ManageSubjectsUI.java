@@ -1,8 +1,7 @@
 package com.example.studentperformance.ui;
 
+import com.example.studentperformance.dao.DAOFactory;
 import com.example.studentperformance.dao.SubjectDAO;
-import com.example.studentperformance.DatabaseConnection;
-import com.example.studentperformance.dao.SubjectDAOImpl;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -12,7 +11,6 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.RoundRectangle2D;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 
 public class ManageSubjectsUI {
@@ -26,6 +24,7 @@ public class ManageSubjectsUI {
     private static final Font TABLE_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     private static final Font BUTTON_FONT = new Font("Segoe UI", Font.BOLD, 14);
     private static final int ANIMATION_DURATION = 200; // milliseconds
+    private static final int SEARCH_PAGE_SIZE = 500; // rows fetched per search
 
     private JFrame frame;
     private JLabel statusLabel;
@@ -34,6 +33,10 @@ public class ManageSubjectsUI {
     private DefaultTableModel tableModel;
     private SubjectDAO subjectDAO;
     private JTextField searchField;
+    private DebouncedSearch<List<SubjectDAO.Subject>> subjectSearch;
+    private InfiniteScroll<SubjectDAO.Subject> subjectPager;
+    // Read by the page loader off the EDT
+    private volatile boolean sortByName;
 
     public ManageSubjectsUI() {
         frame = new JFrame("Manage Subjects");
@@ -41,7 +44,7 @@ public class ManageSubjectsUI {
         frame.setSize(new Dimension(800, 600));
 
         // Initialize the SubjectDAO
-        this.subjectDAO = new SubjectDAOImpl(DatabaseConnection.getConnection());
+        this.subjectDAO = DAOFactory.subjectDAO();
 
         initializeUI();
     }
@@ -176,6 +179,10 @@ public class ManageSubjectsUI {
                 BorderFactory.createLineBorder(SECONDARY_COLOR, 1, true)
         ));
 
+        // Pages in subjects as the user scrolls instead of loading the whole table
+        subjectPager = new InfiniteScroll<>(scrollPane, this::loadSubjectPage, this::showSubjectPage,
+                ex -> showErrorMessage("Error loading subjects: " + ex.getMessage()));
+
         // Search panel at the top
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         searchPanel.setOpaque(false);
@@ -186,29 +193,36 @@ public class ManageSubjectsUI {
         searchField = new JTextField(20);
         searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
 
-        // Add listener to search as you type
-        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+        // Search as you type; queries run off the EDT once typing pauses
+        subjectSearch = new DebouncedSearch<>(this::findSubjects, this::showSearchResults,
+                ex -> showErrorMessage("Error searching subjects: " + ex.getMessage()));
+        subjectSearch.setOnStart(term -> statusLabel.setText("Searching for: " + term.trim()));
+        subjectSearch.attachTo(searchField);
+        frame.addWindowListener(new WindowAdapter() {
             @Override
-            public void insertUpdate(javax.swing.event.DocumentEvent e) {
-                searchSubjects();
+            public void windowClosed(WindowEvent e) {
+                subjectSearch.cancel();
+                subjectPager.stop();
             }
+        });
 
-            @Override
-            public void removeUpdate(javax.swing.event.DocumentEvent e) {
-                searchSubjects();
-            }
+        JButton searchButton = createStyledButton("Search", e -> subjectSearch.runNow(searchField.getText()));
 
-            @Override
-            public void changedUpdate(javax.swing.event.DocumentEvent e) {
-                searchSubjects();
-            }
+        JLabel sortLabel = new JLabel("Sort by:");
+        sortLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        sortLabel.setForeground(TEXT_COLOR);
+        JComboBox<String> sortComboBox = new JComboBox<>(new String[]{"ID", "Name"});
+        sortComboBox.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        sortComboBox.addActionListener(e -> {
+            sortByName = sortComboBox.getSelectedIndex() == 1;
+            subjectSearch.runNow(searchField.getText());
         });
 
-        JButton searchButton = createStyledButton("Search", e -> searchSubjects());
-
         searchPanel.add(searchLabel);
         searchPanel.add(searchField);
         searchPanel.add(searchButton);
+        searchPanel.add(sortLabel);
+        searchPanel.add(sortComboBox);
 
         // Add components to the panel
         tablePanel.add(searchPanel, BorderLayout.NORTH);
@@ -220,35 +234,47 @@ public class ManageSubjectsUI {
         return tablePanel;
     }
 
-    private void searchSubjects() {
-        String searchTerm = searchField.getText().trim().toLowerCase();
-        statusLabel.setText("Searching for: " + searchTerm);
-
+    // Runs on a background thread; must not touch the table
+    private List<SubjectDAO.Subject> findSubjects(String term) throws Exception {
+        String searchTerm = term.trim();
         if (searchTerm.isEmpty()) {
-            loadSubjects(); // Load all subjects if search field is empty
-            return;
+            return List.of(); // An empty search goes back to paging through all subjects
         }
+        // Filtering happens in SQLite; only the first page of matches comes back
+        return subjectDAO.searchSubjects(searchTerm, sortByName, SEARCH_PAGE_SIZE, 0);
+    }
 
-        try {
-            List<SubjectDAO.Subject> allSubjects = subjectDAO.getAllSubjects();
-            List<SubjectDAO.Subject> filteredSubjects = new ArrayList<>();
-
-            // Filter subjects based on search term
-            for (SubjectDAO.Subject subject : allSubjects) {
-                if (subject.getName().toLowerCase().contains(searchTerm) ||
-                        String.valueOf(subject.getSubjectId()).contains(searchTerm)) {
-                    filteredSubjects.add(subject);
-                }
-            }
+    private void showSearchResults(String term, List<SubjectDAO.Subject> subjects) {
+        if (term.trim().isEmpty()) {
+            loadSubjects();
+            return;
+        }
+        subjectPager.stop();
+        updateTableWithSubjects(subjects);
+        if (subjects.size() == SEARCH_PAGE_SIZE) {
+            statusLabel.setText("Showing the first " + SEARCH_PAGE_SIZE + " matching subjects");
+        } else {
+            statusLabel.setText("Found " + subjects.size() + " matching subjects");
+        }
+    }
 
-            // Update table with filtered results
-            updateTableWithSubjects(filteredSubjects);
-            statusLabel.setText("Found " + filteredSubjects.size() + " matching subjects");
+    // Runs on a background thread; fetches the page after the last row already shown
+    private List<SubjectDAO.Subject> loadSubjectPage(SubjectDAO.Subject last, int limit) throws Exception {
+        if (sortByName) {
+            return last == null
+                    ? subjectDAO.getSubjectsPageByName(null, 0, limit)
+                    : subjectDAO.getSubjectsPageByName(last.getName(), last.getSubjectId(), limit);
+        }
+        return subjectDAO.getSubjectsPage(last == null ? null : last.getSubjectId(), limit);
+    }
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
-            showErrorMessage("Error searching subjects: " + ex.getMessage());
+    private void showSubjectPage(List<SubjectDAO.Subject> page, boolean firstPage) {
+        if (firstPage) {
+            tableModel.setRowCount(0);
+            statusLabel.setText("Subjects loaded successfully");
         }
+        addSubjectRows(page);
+        updateCountLabel();
     }
 
     private JPanel createButtonPanel() {
@@ -479,26 +505,20 @@ public class ManageSubjectsUI {
         return statusPanel;
     }
 
+    // Starts paging from the first subject again; the rest load as the user scrolls
     private void loadSubjects() {
         statusLabel.setText("Loading subjects...");
-
-        try {
-            List<SubjectDAO.Subject> subjects = subjectDAO.getAllSubjects();
-            updateTableWithSubjects(subjects);
-            statusLabel.setText("Subjects loaded successfully");
-        } catch (Exception e) {
-            e.printStackTrace();
-            showErrorMessage("Error loading subjects: " + e.getMessage());
-        }
+        subjectPager.reset();
     }
 
     private void updateTableWithSubjects(List<SubjectDAO.Subject> subjects) {
         // Clear existing rows
         tableModel.setRowCount(0);
+        addSubjectRows(subjects);
+        updateCountLabel();
+    }
 
-        // Update the count label
-        countLabel.setText("Total Subjects: " + subjects.size());
-
+    private void addSubjectRows(List<SubjectDAO.Subject> subjects) {
         // Populate table with data - only ID and Name
         for (SubjectDAO.Subject subject : subjects) {
             Object[] row = {
@@ -510,7 +530,11 @@ public class ManageSubjectsUI {
     }
 
     private void updateCountLabel() {
-        countLabel.setText("Total Subjects: " + tableModel.getRowCount());
+        if (subjectPager.hasMore()) {
+            countLabel.setText("Subjects Loaded: " + tableModel.getRowCount() + " (scroll for more)");
+        } else {
+            countLabel.setText("Total Subjects: " + tableModel.getRowCount());
+        }
     }
 
     private void showErrorMessage(String message) {
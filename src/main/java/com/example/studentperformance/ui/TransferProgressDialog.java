@@ -0,0 +1,70 @@
+package com.example.studentperformance.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+/**
+ * Small window showing the progress of an import or export running on a background thread,
+ * with a Cancel button. Cancelling only asks the transfer to stop; the caller disposes the
+ * dialog once the worker has actually finished. All methods must be called on the EDT.
+ */
+public class TransferProgressDialog extends JDialog {
+
+    private final JLabel messageLabel = new JLabel("Starting...");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JButton cancelButton = new JButton("Cancel");
+
+    public TransferProgressDialog(Frame owner, String title, Runnable onCancel) {
+        super(owner, title, false);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        messageLabel.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        progressBar.setStringPainted(true);
+        progressBar.setIndeterminate(true);
+
+        cancelButton.addActionListener(e -> cancel(onCancel));
+        // Closing the window is the same as pressing Cancel
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancel(onCancel);
+            }
+        });
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttonPanel.add(cancelButton);
+        panel.add(messageLabel, BorderLayout.NORTH);
+        panel.add(progressBar, BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+        setSize(420, 150);
+        setLocationRelativeTo(owner);
+    }
+
+    // A negative percentage shows an indeterminate bar, e.g. when the total is unknown
+    public void setProgress(String message, int percent) {
+        messageLabel.setText(message);
+        if (percent < 0) {
+            progressBar.setIndeterminate(true);
+            progressBar.setString(null);
+        } else {
+            progressBar.setIndeterminate(false);
+            progressBar.setValue(Math.min(percent, 100));
+            progressBar.setString(Math.min(percent, 100) + "%");
+        }
+    }
+
+    private void cancel(Runnable onCancel) {
+        if (!cancelButton.isEnabled()) {
+            return;
+        }
+        cancelButton.setEnabled(false);
+        messageLabel.setText("Cancelling...");
+        onCancel.run();
+    }
+}
@@ -0,0 +1,35 @@
+-- Core tables. IF NOT EXISTS lets this run against databases created before migrations existed.
+CREATE TABLE IF NOT EXISTS Students (
+    student_id INTEGER PRIMARY KEY AUTOINCREMENT,
+    name TEXT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS Subjects (
+    subject_id INTEGER PRIMARY KEY AUTOINCREMENT,
+    name TEXT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS Grades (
+    grade_id INTEGER PRIMARY KEY AUTOINCREMENT,
+    student_id INTEGER NOT NULL,
+    subject_id INTEGER NOT NULL,
+    grade_value REAL NOT NULL,
+    FOREIGN KEY (student_id) REFERENCES Students(student_id) ON DELETE CASCADE,
+    FOREIGN KEY (subject_id) REFERENCES Subjects(subject_id) ON DELETE CASCADE
+);
+
+-- present is stored as 0/1
+CREATE TABLE IF NOT EXISTS Attendance (
+    attendance_id INTEGER PRIMARY KEY AUTOINCREMENT,
+    student_id INTEGER NOT NULL,
+    subject_id INTEGER NOT NULL,
+    date DATE NOT NULL,
+    present BOOLEAN NOT NULL,
+    FOREIGN KEY (student_id) REFERENCES Students(student_id) ON DELETE CASCADE,
+    FOREIGN KEY (subject_id) REFERENCES Subjects(subject_id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_student_id_grades ON Grades (student_id);
+CREATE INDEX IF NOT EXISTS idx_subject_id_grades ON Grades (subject_id);
+CREATE INDEX IF NOT EXISTS idx_student_id_attendance ON Attendance (student_id);
+CREATE INDEX IF NOT EXISTS idx_subject_id_attendance ON Attendance (subject_id);
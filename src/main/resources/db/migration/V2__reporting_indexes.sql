@@ -0,0 +1,12 @@
+-- Date-range lookups, optionally narrowed to one student or subject
+CREATE INDEX IF NOT EXISTS idx_date_attendance ON Attendance (date);
+CREATE INDEX IF NOT EXISTS idx_student_date_attendance ON Attendance (student_id, date);
+CREATE INDEX IF NOT EXISTS idx_subject_date_attendance ON Attendance (subject_id, date);
+
+CREATE INDEX IF NOT EXISTS idx_grade_value_grades ON Grades (grade_value);
+-- Covers per-subject aggregates and hands percentile queries their rows pre-sorted
+CREATE INDEX IF NOT EXISTS idx_subject_grade_grades ON Grades (subject_id, grade_value);
+
+-- NOCASE so that case-insensitive prefix LIKE searches can use them
+CREATE INDEX IF NOT EXISTS idx_name_students ON Students (name COLLATE NOCASE);
+CREATE INDEX IF NOT EXISTS idx_name_subjects ON Subjects (name COLLATE NOCASE);
@@ -0,0 +1,48 @@
+-- Per student, day and subject attendance counts for the trend reports, kept in step with
+-- Attendance by triggers. Clustered by student and day, the order the reports read it in.
+CREATE TABLE IF NOT EXISTS DailyAttendanceSummary (
+    student_id INTEGER NOT NULL,
+    date DATE NOT NULL,
+    subject_id INTEGER NOT NULL,
+    present_count INTEGER NOT NULL,
+    total_count INTEGER NOT NULL,
+    PRIMARY KEY (student_id, date, subject_id)
+) WITHOUT ROWID;
+
+CREATE TRIGGER IF NOT EXISTS trg_attendance_summary_insert AFTER INSERT ON Attendance
+BEGIN
+    INSERT INTO DailyAttendanceSummary (student_id, date, subject_id, present_count, total_count)
+    VALUES (NEW.student_id, NEW.date, NEW.subject_id, NEW.present, 1)
+    ON CONFLICT (student_id, date, subject_id) DO UPDATE SET
+        present_count = present_count + excluded.present_count,
+        total_count = total_count + 1;
+END;
+
+CREATE TRIGGER IF NOT EXISTS trg_attendance_summary_delete AFTER DELETE ON Attendance
+BEGIN
+    UPDATE DailyAttendanceSummary SET present_count = present_count - OLD.present, total_count = total_count - 1
+    WHERE student_id = OLD.student_id AND date = OLD.date AND subject_id = OLD.subject_id;
+    DELETE FROM DailyAttendanceSummary
+    WHERE student_id = OLD.student_id AND date = OLD.date AND subject_id = OLD.subject_id AND total_count <= 0;
+END;
+
+-- An update moves the row's contribution from its old key to its new one
+CREATE TRIGGER IF NOT EXISTS trg_attendance_summary_update
+AFTER UPDATE OF student_id, subject_id, date, present ON Attendance
+BEGIN
+    UPDATE DailyAttendanceSummary SET present_count = present_count - OLD.present, total_count = total_count - 1
+    WHERE student_id = OLD.student_id AND date = OLD.date AND subject_id = OLD.subject_id;
+    DELETE FROM DailyAttendanceSummary
+    WHERE student_id = OLD.student_id AND date = OLD.date AND subject_id = OLD.subject_id AND total_count <= 0;
+    INSERT INTO DailyAttendanceSummary (student_id, date, subject_id, present_count, total_count)
+    VALUES (NEW.student_id, NEW.date, NEW.subject_id, NEW.present, 1)
+    ON CONFLICT (student_id, date, subject_id) DO UPDATE SET
+        present_count = present_count + excluded.present_count,
+        total_count = total_count + 1;
+END;
+
+-- Fill it from the attendance that is already there
+DELETE FROM DailyAttendanceSummary;
+INSERT INTO DailyAttendanceSummary (student_id, date, subject_id, present_count, total_count)
+SELECT student_id, date, subject_id, SUM(present), COUNT(*) FROM Attendance
+GROUP BY student_id, date, subject_id;
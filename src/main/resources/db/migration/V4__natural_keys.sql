@@ -0,0 +1,46 @@
+-- One attendance row per (student, subject, date) and one grade per (student, subject),
+-- matching the keys the DAOs read, update and delete by.
+
+-- Earlier schemas allowed several rows per key, e.g. a history of grades for one student and
+-- subject. The live tables keep the most recently written row of each key; the older ones are
+-- moved, not dropped, into quarantine tables with the same columns, where SchemaMigrator
+-- reports them and they can be reviewed or restored by hand. The summary triggers take the
+-- moved attendance rows back out of DailyAttendanceSummary.
+CREATE TABLE IF NOT EXISTS Attendance_duplicates (
+    attendance_id INTEGER PRIMARY KEY,
+    student_id INTEGER NOT NULL,
+    subject_id INTEGER NOT NULL,
+    date DATE NOT NULL,
+    present BOOLEAN NOT NULL,
+    quarantined_on TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS Grades_duplicates (
+    grade_id INTEGER PRIMARY KEY,
+    student_id INTEGER NOT NULL,
+    subject_id INTEGER NOT NULL,
+    grade_value REAL NOT NULL,
+    quarantined_on TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO Attendance_duplicates (attendance_id, student_id, subject_id, date, present)
+SELECT attendance_id, student_id, subject_id, date, present FROM Attendance
+WHERE attendance_id NOT IN
+    (SELECT MAX(attendance_id) FROM Attendance GROUP BY student_id, subject_id, date);
+DELETE FROM Attendance WHERE attendance_id IN (SELECT attendance_id FROM Attendance_duplicates);
+
+INSERT INTO Grades_duplicates (grade_id, student_id, subject_id, grade_value)
+SELECT grade_id, student_id, subject_id, grade_value FROM Grades
+WHERE grade_id NOT IN
+    (SELECT MAX(grade_id) FROM Grades GROUP BY student_id, subject_id);
+DELETE FROM Grades WHERE grade_id IN (SELECT grade_id FROM Grades_duplicates);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_attendance_key ON Attendance (student_id, subject_id, date);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_grades_key ON Grades (student_id, subject_id);
+
+-- Leading columns of the composite indexes, which also serve the foreign keys; keeping them
+-- only slows down writes
+DROP INDEX IF EXISTS idx_student_id_grades;
+DROP INDEX IF EXISTS idx_subject_id_grades;
+DROP INDEX IF EXISTS idx_student_id_attendance;
+DROP INDEX IF EXISTS idx_subject_id_attendance;
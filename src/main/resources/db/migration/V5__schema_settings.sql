@@ -0,0 +1,8 @@
+-- Named storage options chosen per database, read by the DAOs at startup
+CREATE TABLE IF NOT EXISTS schema_settings (
+    name TEXT PRIMARY KEY,
+    value TEXT NOT NULL
+) WITHOUT ROWID;
+
+-- Attendance dates start out as ISO text; AttendanceDateCodec.convert switches them to epoch days
+INSERT OR IGNORE INTO schema_settings (name, value) VALUES ('attendance_date_encoding', 'iso_text');
@@ -0,0 +1,3 @@
+-- Date-range rollups across all students, optionally narrowed to one subject; the primary key
+-- only serves them once a student is chosen
+CREATE INDEX IF NOT EXISTS idx_date_summary ON DailyAttendanceSummary (date);
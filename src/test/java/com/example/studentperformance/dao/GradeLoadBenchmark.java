@@ -0,0 +1,153 @@
+package com.example.studentperformance.dao;
+
+import com.example.studentperformance.ConnectionPool;
+import com.example.studentperformance.SchemaMigrator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares two ways of loading every grade with its student and subject name, the rows the
+ * grades table shows: one readStudent and one readSubject per grade, as the table used to, and
+ * the single joined query behind forEachGradeView.
+ * <p>
+ * Each size gets a fresh database file in the temp directory with 50 subjects and enough
+ * students for one grade per student and subject; it is deleted afterwards. Both paths run once
+ * untimed before they are measured. Arguments: the grade counts to measure (default 10000
+ * 100000 1000000). Only DAO load time is measured, not painting the table.
+ */
+public final class GradeLoadBenchmark {
+
+    private static final int SUBJECTS = 50;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private GradeLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[]{10_000, 100_000, 1_000_000};
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        System.out.printf("%10s %18s %14s %9s%n", "grades", "per-row lookups", "joined query", "speedup");
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static void run(int grades) throws Exception {
+        Path file = Files.createTempFile("grade-load-benchmark", ".db");
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + file, 1, 60_000, 30_000, 2, STATEMENT_CACHE_SIZE,
+                connection -> {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute("PRAGMA foreign_keys = ON");
+                    }
+                });
+        try {
+            try (Connection connection = pool.borrow()) {
+                new SchemaMigrator().migrate(connection);
+                populate(connection, grades);
+            }
+            StudentDAO students = new StudentDAOImpl() {
+                @Override
+                protected Connection openConnection() {
+                    return borrow(pool);
+                }
+            };
+            SubjectDAO subjects = new SubjectDAOImpl() {
+                @Override
+                protected Connection openConnection() {
+                    return borrow(pool);
+                }
+            };
+            GradeDAO gradeDAO = new GradeDAOImpl() {
+                @Override
+                protected Connection openConnection() {
+                    return borrow(pool);
+                }
+            };
+
+            loadWithLookups(gradeDAO, students, subjects);
+            loadJoined(gradeDAO);
+            long start = System.nanoTime();
+            int lookedUp = loadWithLookups(gradeDAO, students, subjects);
+            long lookupMillis = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            int joined = loadJoined(gradeDAO);
+            long joinedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (lookedUp != grades || joined != grades) {
+                throw new IllegalStateException("Expected " + grades + " rows, loaded " + lookedUp + " and " + joined);
+            }
+
+            System.out.printf("%,10d %15d ms %11d ms %8.1fx%n", grades, lookupMillis, joinedMillis,
+                    (double) lookupMillis / Math.max(joinedMillis, 1));
+        } finally {
+            pool.shutdown();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // The old table load: every grade, then its student and subject by primary key
+    private static int loadWithLookups(GradeDAO grades, StudentDAO students, SubjectDAO subjects) throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (GradeDAO.Grade grade : grades.getAllGrades()) {
+            StudentDAO.Student student = students.readStudent(grade.getStudentId());
+            SubjectDAO.Subject subject = subjects.readSubject(grade.getSubjectId());
+            rows.add(new Object[]{student.getName(), subject.getName(), grade.getGrade()});
+        }
+        return rows.size();
+    }
+
+    private static int loadJoined(GradeDAO grades) throws Exception {
+        List<GradeDAO.GradeView> rows = new ArrayList<>();
+        grades.forEachGradeView(rows::add);
+        return rows.size();
+    }
+
+    private static void populate(Connection connection, int grades) throws SQLException {
+        int studentCount = (grades + SUBJECTS - 1) / SUBJECTS;
+        connection.setAutoCommit(false);
+        try (PreparedStatement student = connection.prepareStatement("INSERT INTO Students (name) VALUES (?)");
+             PreparedStatement subject = connection.prepareStatement("INSERT INTO Subjects (name) VALUES (?)");
+             PreparedStatement grade = connection.prepareStatement(
+                     "INSERT INTO Grades (student_id, subject_id, grade_value) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= studentCount; i++) {
+                student.setString(1, "Student " + i);
+                student.addBatch();
+            }
+            student.executeBatch();
+            for (int i = 1; i <= SUBJECTS; i++) {
+                subject.setString(1, "Subject " + i);
+                subject.addBatch();
+            }
+            subject.executeBatch();
+            for (int i = 0; i < grades; i++) {
+                grade.setInt(1, i / SUBJECTS + 1);
+                grade.setInt(2, i % SUBJECTS + 1);
+                grade.setDouble(3, (i * 37) % 1001 / 10.0);
+                grade.addBatch();
+                if (i % 10_000 == 9_999) {
+                    grade.executeBatch();
+                }
+            }
+            grade.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static Connection borrow(ConnectionPool pool) {
+        try {
+            return pool.borrow();
+        } catch (SQLException e) {
+            throw new RuntimeException("Database connection is not valid", e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.studentperformance.dao;
+
+import com.example.studentperformance.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Measures primary key lookup throughput through the DAOs with and without the pool's
+ * prepared statement cache. Each run gets its own single-connection pool over the same
+ * database file, so the only difference is whether readStudent and readGrade reuse a
+ * compiled statement or prepare one per call.
+ * <p>
+ * Both configurations run once untimed before either is measured, so the JIT has compiled
+ * both code paths. Arguments: the database file (default student_performance.db) and the
+ * number of lookups per run (default 200000). The database is only read.
+ */
+public final class PointLookupBenchmark {
+
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final int SAMPLE_ROWS = 100;
+
+    private PointLookupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String file = args.length > 0 ? args[0] : "student_performance.db";
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        run(null, file, 0, lookups);
+        run(null, file, STATEMENT_CACHE_SIZE, lookups);
+        double uncached = run("no statement cache", file, 0, lookups);
+        double cached = run("statement cache of " + STATEMENT_CACHE_SIZE, file, STATEMENT_CACHE_SIZE, lookups);
+        if (uncached > 0) {
+            System.out.printf("Speedup: %.2fx%n", cached / uncached);
+        }
+    }
+
+    // Returns lookups per second; a null label is a warm-up run that prints nothing
+    private static double run(String label, String file, int statementCacheSize, int lookups) throws Exception {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + file, 1, 60_000, 30_000, 2, statementCacheSize,
+                connection -> {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute("PRAGMA foreign_keys = ON");
+                    }
+                });
+        try {
+            StudentDAO students = new StudentDAOImpl() {
+                @Override
+                protected Connection openConnection() {
+                    return borrow(pool);
+                }
+            };
+            GradeDAO grades = new GradeDAOImpl() {
+                @Override
+                protected Connection openConnection() {
+                    return borrow(pool);
+                }
+            };
+            List<StudentDAO.Student> studentSample = students.getStudentsPage(null, SAMPLE_ROWS);
+            List<GradeDAO.GradeView> gradeSample = grades.getGradeViewsAt(0, SAMPLE_ROWS);
+            if (studentSample.isEmpty()) {
+                throw new IllegalStateException("No students to look up in " + file);
+            }
+
+            long start = System.nanoTime();
+            lookUp(students, grades, studentSample, gradeSample, lookups);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double perSecond = lookups / seconds;
+            if (label == null) {
+                return perSecond;
+            }
+
+            System.out.printf("%s: %,d lookups in %.0f ms, %,.0f lookups/s, %.1f us each%n",
+                    label, lookups, seconds * 1000, perSecond, seconds * 1e6 / lookups);
+            System.out.println("  pool: " + pool.getStats());
+            return perSecond;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Alternates student and grade lookups over the sampled keys
+    private static void lookUp(StudentDAO students, GradeDAO grades, List<StudentDAO.Student> studentSample,
+                               List<GradeDAO.GradeView> gradeSample, int lookups) throws Exception {
+        for (int i = 0; i < lookups; i++) {
+            if (gradeSample.isEmpty() || i % 2 == 0) {
+                students.readStudent(studentSample.get(i % studentSample.size()).getStudentId());
+            } else {
+                GradeDAO.GradeView grade = gradeSample.get(i % gradeSample.size());
+                grades.readGrade(grade.getStudentId(), grade.getSubjectId());
+            }
+        }
+    }
+
+    private static Connection borrow(ConnectionPool pool) {
+        try {
+            return pool.borrow();
+        } catch (SQLException e) {
+            throw new RuntimeException("Database connection is not valid", e);
+        }
+    }
+}